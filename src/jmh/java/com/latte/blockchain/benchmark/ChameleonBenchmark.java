@@ -0,0 +1,115 @@
+package com.latte.blockchain.benchmark;
+
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.UserChameleonTrap;
+import com.latte.blockchain.entity.Wallet;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.repository.ChameleonParameterRepo;
+import com.latte.blockchain.repository.ChameleonPublicKeyRepo;
+import com.latte.blockchain.service.impl.ChameleonServiceImpl;
+import com.latte.blockchain.service.impl.RedactionKeyServiceImpl;
+import com.latte.blockchain.utils.AmountUtil;
+import it.unisa.dia.gas.jpbc.Element;
+import it.unisa.dia.gas.jpbc.Field;
+import it.unisa.dia.gas.plaf.jpbc.pairing.PairingFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 变色龙哈希生成、消息修改与哈希验证的基准测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChameleonBenchmark {
+
+    private ChameleonServiceImpl chameleonService;
+
+    private RedactionKeyServiceImpl redactionKeyService;
+
+    private Wallet user;
+
+    private Transaction transaction;
+
+    /**
+     * generateHash会改写交易ID，使用独立的交易避免影响其他基准
+     */
+    private Transaction scratch;
+
+    /**
+     * 满足hash = m'P + r'Y的一组修改后消息与随机数
+     */
+    private Element msg;
+
+    private Element usingR;
+
+    @Setup
+    public void setup() throws IOException {
+        redactionKeyService = new RedactionKeyServiceImpl(
+                Files.createTempDirectory("redaction-keys").toString());
+        chameleonService = new ChameleonServiceImpl(noopRepo(ChameleonParameterRepo.class),
+                noopRepo(ChameleonPublicKeyRepo.class), redactionKeyService);
+        chameleonService.setup();
+        user = new Wallet();
+        chameleonService.setUserSecret(user);
+        transaction = new Transaction(user.getPublicKey(), user.getPublicKey(), AmountUtil.UNITS, new HashSet<>());
+        chameleonService.generateHash(transaction, user);
+        scratch = new Transaction(user.getPublicKey(), user.getPublicKey(), AmountUtil.UNITS, new HashSet<>());
+
+        // 与服务使用相同的配对参数(PairingFactory默认复用实例)，按m' = k - r'x构造碰撞
+        Field zr = PairingFactory.getPairing(LatteChainConfEnum.PAIRING_PARAMETERS).getZr();
+        UserChameleonTrap trap = user.getTrap();
+        usingR = zr.newRandomElement().getImmutable();
+        msg = redactionKeyService.get(transaction.getId()).sub(usingR.mul(trap.getX())).getImmutable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        chameleonService.shutdown();
+        redactionKeyService.close();
+    }
+
+    /**
+     * 不依赖数据库的DAO，save直接返回实体，查询均为空
+     */
+    private static <T> T noopRepo(Class<T> repo) {
+        return repo.cast(Proxy.newProxyInstance(repo.getClassLoader(), new Class<?>[]{repo},
+                (proxy, method, args) -> "save".equals(method.getName()) ? args[0] : Optional.empty()));
+    }
+
+    /**
+     * 请求路径上的开销，元组池耗尽后退化为同步计算
+     */
+    @Benchmark
+    public String generateHash() {
+        chameleonService.generateHash(scratch, user);
+        return scratch.getId();
+    }
+
+    @Benchmark
+    public String modifyMessage() {
+        return chameleonService.modifyMessage(transaction.getId(), user);
+    }
+
+    @Benchmark
+    public boolean verifyHash() {
+        return chameleonService.verifyHash(msg, transaction.getId(), user.getTrap(), usingR);
+    }
+
+    @Benchmark
+    public boolean verifyHashWithPublicKey() {
+        return chameleonService.verifyHash(msg, transaction.getId(), usingR, user.getPublicKeyString());
+    }
+}
@@ -0,0 +1,88 @@
+package com.latte.blockchain.benchmark;
+
+import cn.hutool.crypto.SecureUtil;
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.utils.AmountUtil;
+import com.latte.blockchain.utils.BinaryCodec;
+import com.latte.blockchain.utils.CryptoUtil;
+import com.latte.blockchain.utils.JsonUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 区块二进制编解码与JSON序列化的对比基准测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private Block block;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        KeyPair sender = SecureUtil.generateKeyPair("SM2");
+        KeyPair recipient = SecureUtil.generateKeyPair("SM2");
+        block = new Block(randomHash(), "benchmark");
+        block.setId(1);
+        for (int i = 0; i < LatteChainConfEnum.MAX_TRANSACTION_AMOUNT; i++) {
+            Set<String> inputs = new HashSet<>();
+            inputs.add(randomHash());
+            Transaction transaction = new Transaction(sender.getPublic(), recipient.getPublic(), AmountUtil.UNITS, inputs);
+            transaction.setId(randomHash());
+            transaction.setSenderString(CryptoUtil.getStringFromKey(sender.getPublic()));
+            transaction.setRecipientString(CryptoUtil.getStringFromKey(recipient.getPublic()));
+            transaction.setData(Transaction.composeData(transaction.getSenderString(),
+                    transaction.getRecipientString(), transaction.getValue(), transaction.getFee(),
+                    transaction.getTimeStamp(), null));
+            transaction.setRegistrationMsg(String.valueOf(i));
+            transaction.setSignature(CryptoUtil.applySm2Signature(sender.getPrivate(), transaction.getData()));
+            Set<Utxo> outputs = new HashSet<>();
+            Utxo output = new Utxo(recipient.getPublic(), AmountUtil.UNITS);
+            output.setRefTransactionId(transaction.getId());
+            outputs.add(output);
+            transaction.setOutputUtxos(outputs);
+            transaction.getOutputUtxosId().add(output.getId());
+            block.addTransaction(transaction);
+        }
+        block.setMerkleRoot(block.getMerkleTree().getRootHex());
+        block.setHash(randomHash());
+        encoded = BinaryCodec.toBytes(block);
+    }
+
+    private static String randomHash() {
+        return CryptoUtil.applySha256Hash(UUID.randomUUID().toString().getBytes());
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryCodec.toBytes(block);
+    }
+
+    @Benchmark
+    public Block decodeBinary() {
+        return BinaryCodec.decodeBlock(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return JsonUtil.toJson(block);
+    }
+}
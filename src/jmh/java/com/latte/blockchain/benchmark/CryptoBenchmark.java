@@ -0,0 +1,103 @@
+package com.latte.blockchain.benchmark;
+
+import cn.hutool.crypto.SecureUtil;
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.service.impl.MineServiceImpl;
+import com.latte.blockchain.utils.AmountUtil;
+import com.latte.blockchain.utils.CryptoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 哈希、签名、默克根以及区块头哈希计算的基准测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+
+    private KeyPair keyPair;
+
+    private String data;
+
+    private byte[] signature;
+
+    private MineServiceImpl mineService;
+
+    private Block block;
+
+    @Setup
+    public void setup() {
+        keyPair = SecureUtil.generateKeyPair("SM2");
+        data = CryptoUtil.getStringFromKey(keyPair.getPublic()) + UUID.randomUUID() + System.currentTimeMillis();
+        signature = CryptoUtil.applySm2Signature(keyPair.getPrivate(), data);
+
+        mineService = new MineServiceImpl();
+        block = new Block(CryptoUtil.applySha256Hash(data.getBytes()), "benchmark");
+        block.setId(1);
+        block.setMerkleRoot(CryptoUtil.applySha256Hash(signature));
+    }
+
+    /**
+     * 默克根计算所需的交易集合，仅作用于merkleRoot
+     */
+    @State(Scope.Benchmark)
+    public static class TransactionSet {
+
+        /**
+         * 区块中的交易数量
+         */
+        @Param({"4", "64", "1024"})
+        public int transactionAmount;
+
+        private List<Transaction> transactions;
+
+        @Setup
+        public void setup() {
+            transactions = new ArrayList<>(transactionAmount);
+            for (int i = 0; i < transactionAmount; i++) {
+                Transaction transaction = new Transaction(null, null, AmountUtil.UNITS, new HashSet<>());
+                transaction.setId(CryptoUtil.applySha256Hash(UUID.randomUUID().toString().getBytes()));
+                transactions.add(transaction);
+            }
+        }
+    }
+
+    @Benchmark
+    public String sm3Hash() {
+        return CryptoUtil.applySm3Hash(data);
+    }
+
+    @Benchmark
+    public byte[] sm2Sign() {
+        return CryptoUtil.applySm2Signature(keyPair.getPrivate(), data);
+    }
+
+    @Benchmark
+    public boolean sm2Verify() {
+        return CryptoUtil.verifySm2Signature(keyPair.getPublic(), data, signature);
+    }
+
+    @Benchmark
+    public String merkleRoot(TransactionSet set) {
+        return CryptoUtil.calculateMerkleRoot(set.transactions);
+    }
+
+    @Benchmark
+    public String calculateBlockHash() {
+        return mineService.calculateBlockHash(block);
+    }
+}
@@ -0,0 +1,77 @@
+package com.latte.blockchain.benchmark;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.service.impl.MineServiceImpl;
+import com.latte.blockchain.service.impl.NonceSearchServiceImpl;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.utils.AmountUtil;
+import com.latte.blockchain.utils.CryptoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同难度及线程数下挖矿耗时的基准测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MineBenchmark {
+
+    /**
+     * 哈希值前导零比特数
+     */
+    @Param({"8", "12", "16", "20"})
+    public int difficulty;
+
+    /**
+     * nonce搜索线程数量
+     */
+    @Param({"1", "4"})
+    public int workers;
+
+    private MineServiceImpl mineService;
+
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setup() {
+        mineService = new MineServiceImpl(new NonceSearchServiceImpl(workers), difficulty);
+        transactions = new ArrayList<>(LatteChainConfEnum.MAX_TRANSACTION_AMOUNT);
+        for (int i = 0; i < LatteChainConfEnum.MAX_TRANSACTION_AMOUNT; i++) {
+            Transaction transaction = new Transaction(null, null, AmountUtil.UNITS, new HashSet<>());
+            transaction.setId(CryptoUtil.applySha256Hash(UUID.randomUUID().toString().getBytes()));
+            transactions.add(transaction);
+        }
+    }
+
+    /**
+     * 构造一个包含满额交易的新区块，随机的前一区块哈希使每次挖矿的nonce分布相互独立
+     */
+    private Block newBlock() {
+        Block block = new Block(CryptoUtil.applySha256Hash(UUID.randomUUID().toString().getBytes()), "benchmark");
+        block.setId(1);
+        for (Transaction transaction : transactions) {
+            block.addTransaction(transaction);
+        }
+        return block;
+    }
+
+    @Benchmark
+    public String mineNewBlock() {
+        Block block = newBlock();
+        mineService.mineNewBlock(block);
+        return block.getHash();
+    }
+}
@@ -1,17 +1,27 @@
 package com.latte.blockchain.controller;
 
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.BlockTransaction;
+import com.latte.blockchain.entity.ChainTip;
 import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.enums.LatteChainConfEnum;
 import com.latte.blockchain.service.*;
+import com.latte.blockchain.utils.AmountUtil;
+import com.latte.blockchain.utils.JsonUtil;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -30,6 +40,12 @@ public class LatteChainController {
     @Autowired
     private ITransactionService transactionService;
 
+    @Autowired
+    private IBlockStoreService blockStore;
+
+    @Autowired
+    private IChainQueryService chainQueryService;
+
     /**
      * 初始化LatteChain区块链系统，初始化预置账户并创建创世块
      */
@@ -43,6 +59,94 @@ public class LatteChainController {
         }
     }
 
+    /**
+     * 查看当前链顶信息
+     *
+     * @return 链顶信息
+     */
+    @GetMapping(path = "/chainTip")
+    @ResponseBody
+    public String getChainTip() {
+        ChainTip tip = chainService.getChainTip();
+        return tip == null ? null : JsonUtil.toJson(tip);
+    }
+
+    /**
+     * 查看指定高度的区块及其全部交易
+     *
+     * @param height 区块高度
+     * @return 区块信息
+     */
+    @GetMapping(path = "/block")
+    @ResponseBody
+    public String getBlock(@RequestParam(name = "height") long height) {
+        Block block = blockStore.getBlock(height);
+        return block == null ? null : JsonUtil.toJson(block);
+    }
+
+    /**
+     * 查看确认了指定交易的区块
+     *
+     * @param id 交易ID
+     * @return 区块高度及交易在区块中的位置
+     */
+    @GetMapping(path = "/transactionBlock")
+    @ResponseBody
+    public String getTransactionBlock(@RequestParam(name = "transactionId") String id) {
+        BlockTransaction location = blockStore.getTransactionLocation(id);
+        return location == null ? null : JsonUtil.toJson(location);
+    }
+
+    /**
+     * 按高度升序分页流式输出区块
+     *
+     * @param start 起始高度(含)，即上一页返回的next
+     * @param end   结束高度(含)，缺省时直到链顶
+     * @param limit 本页最大区块数量
+     * @return {"items":[区块],"next":下一页起始高度}
+     */
+    @GetMapping(path = "/blocks")
+    public ResponseEntity<StreamingResponseBody> getBlocks(@RequestParam(name = "start", defaultValue = "0") long start,
+                                                           @RequestParam(name = "end", required = false) Long end,
+                                                           @RequestParam(name = "limit", required = false) Integer limit) {
+        int size = pageSize(limit);
+        return streamJson(out -> chainQueryService.writeBlocks(start, end, size, out));
+    }
+
+    /**
+     * 分页流式输出区块中的交易
+     *
+     * @param height 区块高度
+     * @param start  起始位置(含)，即上一页返回的next
+     * @param limit  本页最大交易数量
+     * @return {"items":[交易],"next":下一页起始位置}
+     */
+    @GetMapping(path = "/blockTransactions")
+    public ResponseEntity<StreamingResponseBody> getBlockTransactions(@RequestParam(name = "height") long height,
+                                                                      @RequestParam(name = "start", defaultValue = "0") int start,
+                                                                      @RequestParam(name = "limit", required = false) Integer limit) {
+        int size = pageSize(limit);
+        return streamJson(out -> chainQueryService.writeBlockTransactions(height, start, size, out));
+    }
+
+    /**
+     * 按时间倒序分页流式输出账户的交易历史
+     *
+     * @param name      账户地址
+     * @param timeStamp 上一页返回的next.timeStamp，首页缺省
+     * @param id        上一页返回的next.id，首页缺省
+     * @param limit     本页最大交易数量
+     * @return {"items":[交易],"next":{"timeStamp":..,"id":..}}
+     */
+    @GetMapping(path = "/userTransactions")
+    public ResponseEntity<StreamingResponseBody> getUserTransactions(@RequestParam(name = "userName") String name,
+                                                                     @RequestParam(name = "beforeTimeStamp", required = false) Long timeStamp,
+                                                                     @RequestParam(name = "beforeId", required = false) String id,
+                                                                     @RequestParam(name = "limit", required = false) Integer limit) {
+        int size = pageSize(limit);
+        return streamJson(out -> chainQueryService.writeUserTransactions(name, timeStamp, id, size, out));
+    }
+
     /**
      * 查看当前所有的账户信息
      */
@@ -57,16 +161,18 @@ public class LatteChainController {
      *
      * @param sender    发起方账户地址
      * @param recipient 接受方账户地址
-     * @param value     交易金额
+     * @param value     交易金额，十进制字符串，最多8位小数
+     * @param fee       手续费，格式同交易金额，缺省为0
      * @return String
      */
     @PostMapping(path = "/trade")
     public String sendFunds(@RequestParam(name = "sender") String sender,
                             @RequestParam(name = "recipient") String recipient,
-                            @RequestParam(name = "value") float value,
+                            @RequestParam(name = "value") String value,
+                            @RequestParam(name = "fee", defaultValue = "0") String fee,
                             Model model) {
-        model.addAttribute("transactionInfo",
-                transactionService.createTransaction(sender, recipient, value));
+        model.addAttribute("transactionInfo", transactionService.createTransaction(sender, recipient,
+                AmountUtil.parse(value), AmountUtil.parse(fee)));
         return "transaction";
     }
 
@@ -86,4 +192,29 @@ public class LatteChainController {
                                   @RequestParam(name = "userName") String name) {
         transactionService.modifyTransaction(name, id);
     }
+
+    /**
+     * 批量修改交易信息
+     *
+     * @param ids  交易ID，以逗号分隔
+     * @param name 交易发起方账户地址
+     * @return 各交易的修改结果
+     */
+    @PostMapping(path = "/modifyBatch")
+    @ResponseBody
+    public String modifyTransactions(@RequestParam(name = "transactionIds") List<String> ids,
+                                     @RequestParam(name = "userName") String name) {
+        return JsonUtil.toJson(transactionService.modifyTransactions(name, ids));
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return LatteChainConfEnum.QUERY_PAGE_DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(limit, LatteChainConfEnum.QUERY_PAGE_MAX_SIZE));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamJson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -0,0 +1,28 @@
+package com.latte.blockchain.entity;
+
+import lombok.Getter;
+
+/**
+ * 账户余额变化事件，携带变化后的余额而非增量，同一所有者的事件按UTXO集合的修改顺序发布
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+public class BalanceChangedEvent {
+
+    /**
+     * 所有者公钥字符串
+     */
+    private final String owner;
+
+    /**
+     * 变化后的余额(最小单位)
+     */
+    private final long balance;
+
+    public BalanceChangedEvent(String owner, long balance) {
+        this.owner = owner;
+        this.balance = balance;
+    }
+}
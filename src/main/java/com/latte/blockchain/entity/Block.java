@@ -1,6 +1,8 @@
 package com.latte.blockchain.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.utils.MerkleTree;
 import lombok.Data;
 
 import javax.persistence.*;
@@ -49,6 +51,13 @@ public class Block {
     @Transient
     private List<Transaction> transactions;
 
+    /**
+     * 随交易的添加增量构建的Merkle树
+     */
+    @Transient
+    @JsonIgnore
+    private MerkleTree merkleTree;
+
     /**
      * 时间戳
      */
@@ -66,7 +75,18 @@ public class Block {
         this.previousHash = previousHash;
         this.msg = msg;
         transactions = new ArrayList<>(LatteChainConfEnum.MAX_TRANSACTION_AMOUNT);
+        merkleTree = new MerkleTree(LatteChainConfEnum.MAX_TRANSACTION_AMOUNT);
         this.timeStamp = System.currentTimeMillis();
         this.nonce = 0;
     }
+
+    /**
+     * 将交易添加至区块中，并将交易ID追加为Merkle树的叶子节点
+     *
+     * @param transaction {@link Transaction} 交易
+     */
+    public void addTransaction(Transaction transaction) {
+        transactions.add(transaction);
+        merkleTree.append(transaction.getId());
+    }
 }
@@ -0,0 +1,45 @@
+package com.latte.blockchain.entity;
+
+import lombok.Getter;
+
+import javax.persistence.*;
+
+/**
+ * 区块与交易的从属关系：交易ID -> (区块高度, 交易在区块中的位置)
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+@Entity
+@Table(name = "block_transactions", schema = "lattechain",
+        indexes = @Index(name = "idx_block_position", columnList = "block_id, position"))
+public class BlockTransaction {
+
+    /**
+     * 交易ID
+     */
+    @Id
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    /**
+     * 区块高度
+     */
+    @Column(name = "block_id", nullable = false)
+    private long blockId;
+
+    /**
+     * 交易在区块中的位置，即Merkle树叶子节点下标
+     */
+    @Column(name = "position", nullable = false)
+    private int position;
+
+    protected BlockTransaction() {}
+
+    public BlockTransaction(String transactionId, long blockId, int position) {
+        this.transactionId = transactionId;
+        this.blockId = blockId;
+        this.position = position;
+    }
+}
@@ -0,0 +1,39 @@
+package com.latte.blockchain.entity;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 链状态快照：某一预写日志位置之前所有记录应用后的链顶、UTXO集合与交易池
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+public class ChainSnapshot {
+
+    /**
+     * 快照已包含的最后一条预写日志记录的位置，恢复时只需重放此后的记录
+     */
+    private final long position;
+
+    private final ChainTip tip;
+
+    /**
+     * 未被消耗的UTXO
+     */
+    private final List<Utxo> utxos;
+
+    /**
+     * 交易池中的交易，包含交易输出
+     */
+    private final List<Transaction> transactions;
+
+    public ChainSnapshot(long position, ChainTip tip, List<Utxo> utxos, List<Transaction> transactions) {
+        this.position = position;
+        this.tip = tip;
+        this.utxos = utxos;
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,55 @@
+package com.latte.blockchain.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+/**
+ * 链顶信息，不可变
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+public class ChainTip {
+
+    /**
+     * 链的高度，即下一个区块的id
+     */
+    private final long height;
+
+    /**
+     * 链顶区块哈希值
+     */
+    private final String hash;
+
+    /**
+     * 链顶区块时间戳
+     */
+    private final long timeStamp;
+
+    /**
+     * 是否有矿工正在基于该链顶提交新区块
+     */
+    @JsonIgnore
+    private final boolean committing;
+
+    public ChainTip(long height, String hash, long timeStamp) {
+        this(height, hash, timeStamp, false);
+    }
+
+    private ChainTip(long height, String hash, long timeStamp, boolean committing) {
+        this.height = height;
+        this.hash = hash;
+        this.timeStamp = timeStamp;
+        this.committing = committing;
+    }
+
+    /**
+     * 生成一个表示"正在提交"的链顶副本
+     *
+     * @return {@link ChainTip}
+     */
+    public ChainTip claim() {
+        return new ChainTip(height, hash, timeStamp, true);
+    }
+}
@@ -0,0 +1,74 @@
+package com.latte.blockchain.entity;
+
+import com.latte.blockchain.enums.WalRecordType;
+import lombok.Getter;
+
+/**
+ * 一条链状态预写日志记录
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+public class ChainWalRecord {
+
+    /**
+     * 记录在日志中的位置，随写入顺序递增
+     */
+    private final long position;
+
+    private final WalRecordType type;
+
+    /**
+     * 被应用的区块，包含交易及其输出，仅BLOCK记录
+     */
+    private final Block block;
+
+    /**
+     * 矿工奖励，仅BLOCK记录，可为null
+     */
+    private final Utxo reward;
+
+    /**
+     * 交易ID，仅交易池记录
+     */
+    private final String transactionId;
+
+    /**
+     * 进入交易池的交易，包含交易输出，仅POOL_SUBMIT记录
+     */
+    private final Transaction transaction;
+
+    /**
+     * 被撤销的BLOCK记录的位置，仅BLOCK_ABORT记录
+     */
+    private final long abortedPosition;
+
+    private ChainWalRecord(long position, WalRecordType type, Block block, Utxo reward, String transactionId,
+                           Transaction transaction, long abortedPosition) {
+        this.position = position;
+        this.type = type;
+        this.block = block;
+        this.reward = reward;
+        this.transactionId = transactionId;
+        this.transaction = transaction;
+        this.abortedPosition = abortedPosition;
+    }
+
+    public static ChainWalRecord ofBlock(long position, Block block, Utxo reward) {
+        return new ChainWalRecord(position, WalRecordType.BLOCK, block, reward, null, null, -1);
+    }
+
+    public static ChainWalRecord ofAbort(long position, long abortedPosition) {
+        return new ChainWalRecord(position, WalRecordType.BLOCK_ABORT, null, null, null, null, abortedPosition);
+    }
+
+    public static ChainWalRecord ofRemove(long position, String transactionId) {
+        return new ChainWalRecord(position, WalRecordType.POOL_REMOVE, null, null, transactionId, null, -1);
+    }
+
+    public static ChainWalRecord ofSubmit(long position, Transaction transaction) {
+        return new ChainWalRecord(position, WalRecordType.POOL_SUBMIT, null, null, transaction.getId(), transaction,
+                -1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.latte.blockchain.entity;
+
+import lombok.Getter;
+
+import javax.persistence.*;
+
+/**
+ * 变色龙哈希的系统参数，与用户公钥分表保存，参数名不会与用户重复
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+@Entity
+@Table(name = "chameleon_parameters", schema = "lattechain")
+public class ChameleonParameter {
+
+    /**
+     * 参数名
+     */
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    /**
+     * 序列化后的参数值
+     */
+    @Column(name = "value", length = 256)
+    private byte[] value;
+
+    protected ChameleonParameter() {}
+
+    public ChameleonParameter(String name, byte[] value) {
+        this.name = name;
+        this.value = value;
+    }
+}
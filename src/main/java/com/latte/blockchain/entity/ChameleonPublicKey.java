@@ -0,0 +1,43 @@
+package com.latte.blockchain.entity;
+
+import lombok.Getter;
+
+import javax.persistence.*;
+
+/**
+ * 用户变色龙哈希公钥Y = xP，验证者无需陷门即可据此校验交易修改
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Getter
+@Entity
+@Table(name = "chameleon_public_keys", schema = "lattechain")
+public class ChameleonPublicKey {
+
+    /**
+     * 用户SM2公钥字符串
+     */
+    @Id
+    @Column(name = "owner")
+    private String owner;
+
+    /**
+     * 序列化后的Y
+     */
+    @Column(name = "public_key", length = 256)
+    private byte[] publicKey;
+
+    /**
+     * 时间戳
+     */
+    private long timeStamp;
+
+    protected ChameleonPublicKey() {}
+
+    public ChameleonPublicKey(String owner, byte[] publicKey) {
+        this.owner = owner;
+        this.publicKey = publicKey;
+        this.timeStamp = System.currentTimeMillis();
+    }
+}
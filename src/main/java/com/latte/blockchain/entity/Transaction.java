@@ -20,7 +20,9 @@ import javax.persistence.*;
  */
 @Data
 @Entity
-@Table(name = "transactions", schema = "lattechain")
+@Table(name = "transactions", schema = "lattechain", indexes = {
+        @Index(name = "idx_sender_time", columnList = "sender, time_stamp, transaction_id"),
+        @Index(name = "idx_recipient_time", columnList = "recipient, time_stamp, transaction_id")})
 public class Transaction {
 
     /**
@@ -79,9 +81,14 @@ public class Transaction {
     private Set<String> outputUtxosId;
 
     /**
-     * 交易金额
+     * 交易金额，以最小单位计，见{@link com.latte.blockchain.utils.AmountUtil}
      */
-    private Float value;
+    private long value;
+
+    /**
+     * 交易手续费(最小单位)，即交易输入总值与交易输出总值之差，由打包该交易的矿工获得
+     */
+    private long fee;
 
     /**
      * 交易签名信息
@@ -118,7 +125,7 @@ public class Transaction {
      * @param value     交易金额
      * @param inputs    交易输入
      */
-    public Transaction(PublicKey sender, PublicKey recipient, Float value, Set<String> inputs) {
+    public Transaction(PublicKey sender, PublicKey recipient, long value, Set<String> inputs) {
         this.sender = sender;
         this.recipient = recipient;
         this.value = value;
@@ -126,4 +133,20 @@ public class Transaction {
         this.outputUtxosId = new HashSet<>();
         this.timeStamp = System.currentTimeMillis();
     }
+
+    /**
+     * 组装交易数据，即交易签名的对象
+     *
+     * @param sender          发起方字符串
+     * @param recipient       接受方字符串
+     * @param value           交易金额(最小单位)
+     * @param fee             手续费(最小单位)
+     * @param timeStamp       时间戳
+     * @param registrationMsg 注册信息
+     * @return 交易数据
+     */
+    public static String composeData(String sender, String recipient, long value, long fee, long timeStamp,
+                                     String registrationMsg) {
+        return sender + '-' + recipient + '-' + value + '-' + fee + '-' + timeStamp + '-' + registrationMsg;
+    }
 }
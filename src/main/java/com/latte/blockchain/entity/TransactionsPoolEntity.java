@@ -27,10 +27,19 @@ public class TransactionsPoolEntity implements Serializable {
     @Column
     private long timeStamp;
 
+    /**
+     * 交易的二进制编码，包含不在transactions表中持久化的交易输出，用于崩溃后恢复交易池
+     */
+    @Lob
+    @Getter
+    @Column(name = "encoded_transaction", nullable = false)
+    private byte[] encoded;
+
     protected TransactionsPoolEntity() {}
 
-    public TransactionsPoolEntity(String index, long timeStamp) {
+    public TransactionsPoolEntity(String index, long timeStamp, byte[] encoded) {
         this.transactionIndex = index;
         this.timeStamp = timeStamp;
+        this.encoded = encoded;
     }
 }
@@ -1,10 +1,9 @@
 package com.latte.blockchain.entity;
 
 import it.unisa.dia.gas.jpbc.Element;
+import it.unisa.dia.gas.jpbc.ElementPowPreProcessing;
 import lombok.Data;
 
-import java.util.HashMap;
-
 /**
  * @author lzwgiter
  * @since 2021/06/02
@@ -13,10 +12,19 @@ import java.util.HashMap;
 public class UserChameleonTrap {
     Element x;
 
-    HashMap<String, Element> kMap;
+    /**
+     * 公钥Y = xP，仅在生成陷门时计算一次
+     */
+    Element publicKey;
+
+    /**
+     * Y的固定基预计算表，用于计算rY
+     */
+    ElementPowPreProcessing publicKeyTable;
 
-    public UserChameleonTrap(Element x) {
+    public UserChameleonTrap(Element x, Element publicKey) {
         this.x = x;
-        this.kMap = new HashMap<>();
+        this.publicKey = publicKey;
+        this.publicKeyTable = publicKey.getElementPowPreProcessing();
     }
 }
@@ -36,9 +36,9 @@ public class Utxo {
     private String recipientString;
 
     /**
-     * 交易金额
+     * 交易金额，以最小单位计，见{@link com.latte.blockchain.utils.AmountUtil}
      */
-    private float value;
+    private long value;
 
     /**
      * 时间戳
@@ -50,15 +50,18 @@ public class Utxo {
      */
     private String refTransactionId;
 
-    protected Utxo() {}
+    /**
+     * 供JPA及二进制解码使用，各字段由调用方设置
+     */
+    public Utxo() {}
 
     /**
      * 新建一个交易输出，并自动计算其交易ID
      *
      * @param recipient {@link PublicKey} 接受方
-     * @param value     交易金额
+     * @param value     交易金额(最小单位)
      */
-    public Utxo(PublicKey recipient, float value) {
+    public Utxo(PublicKey recipient, long value) {
         this.recipient = recipient;
         this.recipientString = CryptoUtil.getStringFromKey(recipient);
         this.value = value;
@@ -7,7 +7,6 @@ import com.latte.blockchain.utils.CryptoUtil;
 import java.security.PublicKey;
 import java.security.PrivateKey;
 import java.security.KeyPair;
-import java.util.HashMap;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -65,15 +64,11 @@ public class Wallet {
     private final Thread workerThread;
 
     /**
-     * 用户账户金额
+     * 账户余额(最小单位)，由余额变化事件更新
      */
-    @Getter
-    @JsonIgnore
-    private HashMap<String, Utxo> UTXOs = new HashMap<>();
-
     @Setter
     @Getter
-    private float balance;
+    private volatile long balance;
 
     public Wallet() {
         // 初始化用户的公私钥信息
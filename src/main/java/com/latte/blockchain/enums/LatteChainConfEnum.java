@@ -1,5 +1,7 @@
 package com.latte.blockchain.enums;
 
+import com.latte.blockchain.utils.AmountUtil;
+
 /**
  * 常量
  *
@@ -19,10 +21,14 @@ public class LatteChainConfEnum {
     public static final Integer DIFFICULTY = 4;
 
     /**
-     * 难度字符串
+     * 难度值对应的哈希前导0比特数
+     */
+    public static final int DIFFICULTY_BITS = DIFFICULTY * 4;
+
+    /**
+     * 并行搜索nonce的工作线程数量，默认与CPU核数一致
      */
-    public static final String TARGET_HASH = new String(
-            new char[DIFFICULTY]).replace('\0', '0');
+    public static final int MINE_WORKER_AMOUNT = Runtime.getRuntime().availableProcessors();
 
     /**
      * 系统预置账户数量
@@ -34,13 +40,113 @@ public class LatteChainConfEnum {
      */
     public static final int MAX_TRANSACTION_AMOUNT = 4;
 
+    /**
+     * 每个区块中交易编码后的总字节数上限
+     */
+    public static final int MAX_BLOCK_TRANSACTION_BYTES = 16 * 1024;
+
+    /**
+     * 组装区块模板时因超出字节数上限而跳过的交易数量上限，达到后停止选取
+     */
+    public static final int BLOCK_TEMPLATE_MAX_SKIPS = 16;
+
+    /**
+     * 交易验签结果缓存的最大条目数
+     */
+    public static final int SIGNATURE_CACHE_CAPACITY = 4096;
+
+    /**
+     * 变色龙哈希所用的Type A配对参数
+     */
+    public static final String PAIRING_PARAMETERS = "crypto/a.properties";
+
+    /**
+     * 变色龙哈希系统参数表中G1生成元P的参数名
+     */
+    public static final String CHAMELEON_GENERATOR_PARAMETER = "generator";
+
+    /**
+     * 内存中缓存的变色龙哈希修改密钥k的最大条目数
+     */
+    public static final int REDACTION_KEY_CACHE_CAPACITY = 1024;
+
+    /**
+     * 修改密钥存储文件的段大小：16MB
+     */
+    public static final int REDACTION_KEY_SEGMENT_SIZE = 16 << 20;
+
+    /**
+     * 修改密钥索引文件新建时的槽数，负载超过一半时翻倍
+     */
+    public static final int REDACTION_KEY_INDEX_CAPACITY = 1 << 16;
+
+    /**
+     * 修改密钥索引每写入多少条记录后刷盘一次，重启时只需重放此后的日志
+     */
+    public static final int REDACTION_KEY_INDEX_CHECKPOINT_INTERVAL = 1024;
+
+    /**
+     * 区块存储文件的段大小：64MB
+     */
+    public static final int BLOCK_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * 链状态预写日志的段大小：16MB
+     */
+    public static final int WAL_SEGMENT_SIZE = 16 << 20;
+
+    /**
+     * 每提交多少个区块写入一次链状态快照，启动时只需重放快照之后的预写日志
+     */
+    public static final int WAL_SNAPSHOT_INTERVAL = 64;
+
+    /**
+     * 分页查询默认返回的记录数量
+     */
+    public static final int QUERY_PAGE_DEFAULT_SIZE = 20;
+
+    /**
+     * 分页查询单页最多返回的记录数量
+     */
+    public static final int QUERY_PAGE_MAX_SIZE = 100;
+
+    /**
+     * 流式输出区块时每次从区块存储读取的区块数量
+     */
+    public static final int QUERY_BLOCK_CHUNK_SIZE = 16;
+
+    /**
+     * 每个账户在内存中保留的最近交易数量
+     */
+    public static final int ADDRESS_HISTORY_CAPACITY = 128;
+
+    /**
+     * 内存中保留交易历史的账户数量上限，超出时淘汰最久未查询的账户
+     */
+    public static final int ADDRESS_HISTORY_ACCOUNTS = 1024;
+
+    /**
+     * 每个用户预先计算的变色龙哈希随机数元组(r, m, mP + rY)数量
+     */
+    public static final int CHAMELEON_POOL_CAPACITY = 256;
+
+    /**
+     * 元组数量低于该值时由后台线程补充
+     */
+    public static final int CHAMELEON_POOL_LOW_WATERMARK = 64;
+
+    /**
+     * 补充元组的后台线程数量
+     */
+    public static final int CHAMELEON_POOL_WORKERS = 2;
+
     /**
      * 出块奖励：5个LC(Latte Coin)
      */
-    public static final float BLOCK_SUBSIDY = 5;
+    public static final long BLOCK_SUBSIDY = 5 * AmountUtil.UNITS;
 
     /**
-     * 每包含一个交易信息则奖励0.01个LC
+     * 每包含一个交易信息则奖励0.1个LC
      */
-    public static final float TRANSACTION_SUBSIDY = 0.1f;
+    public static final long TRANSACTION_SUBSIDY = AmountUtil.UNITS / 10;
 }
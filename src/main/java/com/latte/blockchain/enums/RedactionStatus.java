@@ -0,0 +1,34 @@
+package com.latte.blockchain.enums;
+
+/**
+ * 交易信息修改结果
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public enum RedactionStatus {
+    /**
+     * 修改成功
+     */
+    MODIFIED,
+
+    /**
+     * 交易不存在
+     */
+    NOT_FOUND,
+
+    /**
+     * 用户不存在或不是交易的发起方
+     */
+    NOT_OWNER,
+
+    /**
+     * 缺少该交易的修改密钥
+     */
+    NO_KEY,
+
+    /**
+     * 新的交易信息未通过变色龙哈希验证
+     */
+    VERIFY_FAILED
+}
@@ -0,0 +1,29 @@
+package com.latte.blockchain.enums;
+
+/**
+ * 预写日志记录类型
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public enum WalRecordType {
+    /**
+     * 应用一个区块：消耗交易输入、写入交易输出与矿工奖励、移出交易池并推进链顶
+     */
+    BLOCK,
+
+    /**
+     * 无效交易被移出交易池
+     */
+    POOL_REMOVE,
+
+    /**
+     * 交易进入交易池，内容为包含交易输出的交易编码
+     */
+    POOL_SUBMIT,
+
+    /**
+     * 区块的数据库事务已回滚，内容为被撤销的BLOCK记录的位置，恢复时不再重放该区块
+     */
+    BLOCK_ABORT
+}
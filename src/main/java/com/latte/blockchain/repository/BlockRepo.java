@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * @author float311
  * @since 2021/02/21
@@ -20,10 +22,28 @@ public interface BlockRepo extends JpaRepository<Block, String> {
     Block getBlockById(long id);
 
     /**
-     * 获取当前区块链的高度
-     * @return 区块链当前的高度
+     * 获取链上最后一个区块的id，仅在启动时用于初始化链顶
+     *
+     * @return 最大的区块id，链为空时返回null
      */
     @Transactional(timeout = 5, propagation = Propagation.NOT_SUPPORTED)
-    @Query(value = "select count(*) from blocks", nativeQuery = true)
-    long getHeight();
+    @Query(value = "select max(id) from blocks", nativeQuery = true)
+    Long getMaxId();
+
+    /**
+     * 根据区块哈希值获取区块
+     *
+     * @param hash 区块哈希值
+     * @return Block
+     */
+    Block getBlockByHash(String hash);
+
+    /**
+     * 按高度顺序获取区间内的区块
+     *
+     * @param start 起始高度(含)
+     * @param end   结束高度(含)
+     * @return 区块列表
+     */
+    List<Block> findByIdBetweenOrderByIdAsc(long start, long end);
 }
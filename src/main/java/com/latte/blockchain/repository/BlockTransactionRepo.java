@@ -0,0 +1,32 @@
+package com.latte.blockchain.repository;
+
+import com.latte.blockchain.entity.BlockTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * 区块交易从属关系DAO
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface BlockTransactionRepo extends JpaRepository<BlockTransaction, String> {
+
+    /**
+     * 按顺序获取区块中的交易
+     *
+     * @param blockId 区块高度
+     * @return 从属关系列表
+     */
+    List<BlockTransaction> findByBlockIdOrderByPositionAsc(long blockId);
+
+    /**
+     * 获取高度区间内所有区块的交易
+     *
+     * @param start 起始高度(含)
+     * @param end   结束高度(含)
+     * @return 从属关系列表
+     */
+    List<BlockTransaction> findByBlockIdBetweenOrderByBlockIdAscPositionAsc(long start, long end);
+}
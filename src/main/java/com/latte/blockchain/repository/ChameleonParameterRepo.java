@@ -0,0 +1,13 @@
+package com.latte.blockchain.repository;
+
+import com.latte.blockchain.entity.ChameleonParameter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * 变色龙哈希系统参数DAO
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface ChameleonParameterRepo extends JpaRepository<ChameleonParameter, String> {
+}
@@ -0,0 +1,13 @@
+package com.latte.blockchain.repository;
+
+import com.latte.blockchain.entity.ChameleonPublicKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * 变色龙哈希公钥DAO
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface ChameleonPublicKeyRepo extends JpaRepository<ChameleonPublicKey, String> {
+}
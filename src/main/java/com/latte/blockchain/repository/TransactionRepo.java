@@ -1,7 +1,13 @@
 package com.latte.blockchain.repository;
 
 import com.latte.blockchain.entity.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 交易DAO对象访问类
@@ -18,4 +24,58 @@ public interface TransactionRepo extends JpaRepository<Transaction, String> {
      * @return Transaction
      */
     Transaction getTransactionById(String id);
+
+    /**
+     * 一次查询获取多个交易的发起方，不加载交易输入输出
+     *
+     * @param ids 交易ID
+     * @return 交易ID与发起方
+     */
+    List<SenderView> findByIdIn(Collection<String> ids);
+
+    /**
+     * 按时间倒序获取账户在游标之前发起的交易，使用idx_sender_time索引
+     *
+     * @param owner     账户地址
+     * @param timeStamp 游标时间戳
+     * @param id        游标交易ID
+     * @param pageable  返回数量
+     * @return 交易ID与时间戳
+     */
+    @Query("select t.id as id, t.timeStamp as timeStamp from Transaction t where t.senderString = :owner " +
+            "and (t.timeStamp < :ts or (t.timeStamp = :ts and t.id < :id)) order by t.timeStamp desc, t.id desc")
+    List<HistoryView> findSentBefore(@Param("owner") String owner, @Param("ts") long timeStamp,
+                                     @Param("id") String id, Pageable pageable);
+
+    /**
+     * 按时间倒序获取账户在游标之前接收的交易，使用idx_recipient_time索引
+     *
+     * @param owner     账户地址
+     * @param timeStamp 游标时间戳
+     * @param id        游标交易ID
+     * @param pageable  返回数量
+     * @return 交易ID与时间戳
+     */
+    @Query("select t.id as id, t.timeStamp as timeStamp from Transaction t where t.recipientString = :owner " +
+            "and (t.timeStamp < :ts or (t.timeStamp = :ts and t.id < :id)) order by t.timeStamp desc, t.id desc")
+    List<HistoryView> findReceivedBefore(@Param("owner") String owner, @Param("ts") long timeStamp,
+                                         @Param("id") String id, Pageable pageable);
+
+    /**
+     * 交易ID与时间戳投影
+     */
+    interface HistoryView {
+        String getId();
+
+        long getTimeStamp();
+    }
+
+    /**
+     * 交易ID与发起方投影
+     */
+    interface SenderView {
+        String getId();
+
+        String getSenderString();
+    }
 }
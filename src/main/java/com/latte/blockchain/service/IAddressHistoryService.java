@@ -0,0 +1,33 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * 账户交易历史索引：内存中按账户保留最近的交易，更早的历史由transactions表的
+ * (sender|recipient, time_stamp, transaction_id)索引查询
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IAddressHistoryService {
+
+    /**
+     * 记录一笔已写入transactions表的交易
+     *
+     * @param transaction {@link Transaction}
+     */
+    void record(Transaction transaction);
+
+    /**
+     * 按时间倒序获取账户发起或接收的交易ID
+     *
+     * @param address         账户地址
+     * @param beforeTimeStamp 游标时间戳，首页为null
+     * @param beforeId        游标交易ID，首页为null
+     * @param limit           最大数量
+     * @return 交易ID列表
+     */
+    List<String> getTransactionIds(String address, Long beforeTimeStamp, String beforeId, int limit);
+}
@@ -0,0 +1,32 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Utxo;
+
+/**
+ * 区块提交服务，将一个区块引起的所有状态变化作为一个整体写入
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IBlockCommitService {
+
+    /**
+     * 先将区块写入预写日志，再在一个数据库事务中提交区块：消耗交易输入、写入交易输出与矿工奖励、清理交易池并保存区块，
+     * 事务提交成功后再更新内存中的UTXO集合与交易池并按间隔写入链状态快照，事务回滚时在预写日志中撤销该区块，
+     * 调用方需持有链顶的提交权
+     *
+     * @param block  已计算哈希值的区块
+     * @param reward 矿工奖励，创世块为null
+     */
+    void commit(Block block, Utxo reward);
+
+    /**
+     * 启动恢复时重放预写日志中快照之后的区块：区块存储中尚无该区块时补写数据库，事务提交后更新内存状态，
+     * 不写入预写日志
+     *
+     * @param block  区块
+     * @param reward 矿工奖励，可为null
+     */
+    void replay(Block block, Utxo reward);
+}
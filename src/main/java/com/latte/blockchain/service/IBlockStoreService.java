@@ -0,0 +1,62 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.BlockTransaction;
+
+import java.util.List;
+
+/**
+ * 区块存储服务，具体实现由配置项latte-chain.storage.block-store选择
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IBlockStoreService {
+
+    /**
+     * 保存区块及其交易的从属关系，在事务中调用时区块只在事务提交后对查询可见
+     *
+     * @param block {@link Block}
+     */
+    void save(Block block);
+
+    /**
+     * 根据高度获取区块，区块中包含其全部交易
+     *
+     * @param height 区块高度
+     * @return {@link Block}，不存在时返回null
+     */
+    Block getBlock(long height);
+
+    /**
+     * 根据哈希值获取区块
+     *
+     * @param hash 区块哈希值
+     * @return {@link Block}，不存在时返回null
+     */
+    Block getBlockByHash(String hash);
+
+    /**
+     * 获取链上最后一个区块的高度
+     *
+     * @return 最大的区块高度，链为空时返回null
+     */
+    Long getMaxHeight();
+
+    /**
+     * 按高度顺序获取区块
+     *
+     * @param start 起始高度(含)
+     * @param limit 最大数量
+     * @return 区块列表
+     */
+    List<Block> getBlocks(long start, int limit);
+
+    /**
+     * 获取确认了指定交易的区块及交易在其中的位置
+     *
+     * @param transactionId 交易ID
+     * @return {@link BlockTransaction}，交易尚未被确认时返回null
+     */
+    BlockTransaction getTransactionLocation(String transactionId);
+}
@@ -0,0 +1,49 @@
+package com.latte.blockchain.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 链数据查询服务：按游标分页，逐条以JSON写入输出流，不在内存中保存完整结果。
+ * 每页输出格式为{"items":[...],"next":下一页游标}，没有后续数据时next为null
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IChainQueryService {
+
+    /**
+     * 按高度升序输出区块，游标为下一页的起始高度
+     *
+     * @param start 起始高度(含)
+     * @param end   结束高度(含)，为null时直到链顶
+     * @param limit 本页最大区块数量
+     * @param out   输出流
+     * @throws IOException 写入失败
+     */
+    void writeBlocks(long start, Long end, int limit, OutputStream out) throws IOException;
+
+    /**
+     * 按区块中的顺序输出区块的交易，游标为下一页的起始位置
+     *
+     * @param height 区块高度
+     * @param start  起始位置(含)
+     * @param limit  本页最大交易数量
+     * @param out    输出流
+     * @throws IOException 写入失败
+     */
+    void writeBlockTransactions(long height, int start, int limit, OutputStream out) throws IOException;
+
+    /**
+     * 按时间倒序输出账户发起或接收的交易，游标为本页最后一笔交易的时间戳与ID
+     *
+     * @param address         账户地址
+     * @param beforeTimeStamp 游标时间戳，首页为null
+     * @param beforeId        游标交易ID，首页为null
+     * @param limit           本页最大交易数量
+     * @param out             输出流
+     * @throws IOException 写入失败
+     */
+    void writeUserTransactions(String address, Long beforeTimeStamp, String beforeId, int limit,
+                               OutputStream out) throws IOException;
+}
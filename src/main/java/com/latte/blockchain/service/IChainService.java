@@ -1,8 +1,6 @@
 package com.latte.blockchain.service;
 
-import com.latte.blockchain.entity.Block;
-
-import java.util.ArrayList;
+import com.latte.blockchain.entity.ChainTip;
 
 /**
  * @author float311
@@ -17,4 +15,11 @@ public interface IChainService {
      */
     boolean initChain();
 
+    /**
+     * 获取当前链顶，不访问数据库
+     *
+     * @return {@link ChainTip}，链未初始化时返回null
+     */
+    ChainTip getChainTip();
+
 }
@@ -0,0 +1,37 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.ChainSnapshot;
+import com.latte.blockchain.entity.ChainTip;
+
+/**
+ * 链状态快照服务，快照写入后删除其之前的预写日志，启动时由快照加载状态而无需扫描数据库
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IChainSnapshotService {
+
+    /**
+     * 读取最近一次写入的快照
+     *
+     * @return {@link ChainSnapshot}，不存在或已损坏时返回null
+     */
+    ChainSnapshot load();
+
+    /**
+     * 区块的数据库事务提交且内存状态更新后调用，每隔一定数量的区块在后台写入一次快照
+     *
+     * @param position 区块在预写日志中的位置
+     * @param block    已提交的区块
+     */
+    void blockCommitted(long position, Block block);
+
+    /**
+     * 立即写入当前内存状态的快照，用于启动恢复完成后
+     *
+     * @param position 已应用的最后一条预写日志记录的位置
+     * @param tip      当前链顶
+     */
+    void write(long position, ChainTip tip);
+}
@@ -0,0 +1,61 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.ChainWalRecord;
+import com.latte.blockchain.entity.Utxo;
+
+import java.util.List;
+
+/**
+ * 链状态预写日志服务，所有记录在返回前均已刷盘，并发写入者共享同一次刷盘
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IChainWalService {
+
+    /**
+     * 记录区块的应用，须在修改任何状态之前调用
+     *
+     * @param block  区块
+     * @param reward 矿工奖励，可为null
+     * @return 记录在日志中的位置
+     */
+    long logBlock(Block block, Utxo reward);
+
+    /**
+     * 记录区块的数据库事务已回滚，恢复时不再重放该区块
+     *
+     * @param blockPosition {@link #logBlock(Block, Utxo)}返回的位置
+     */
+    void logBlockAbort(long blockPosition);
+
+    /**
+     * 记录交易进入交易池，须在交易放入内存交易池之后调用
+     *
+     * @param transaction 交易的二进制编码，须包含交易输出以便恢复后仍可被打包
+     */
+    void logPoolAdd(byte[] transaction);
+
+    /**
+     * 记录无效交易被移出交易池，须在交易移出内存交易池之后调用
+     *
+     * @param transactionId 交易ID
+     */
+    void logPoolRemove(String transactionId);
+
+    /**
+     * 按写入顺序读取位置大于after的记录，用于启动时重放快照之后的变化
+     *
+     * @param after 起始位置(不含)，为-1时读取所有记录
+     * @return 记录列表
+     */
+    List<ChainWalRecord> readAfter(long after);
+
+    /**
+     * 删除position所在段之前的段文件，调用方需保证此前的记录均已体现在持久化的快照中
+     *
+     * @param position 快照对应的日志位置
+     */
+    void truncateBefore(long position);
+}
@@ -18,7 +18,7 @@ public interface IChameleonService {
     void setup();
 
     /**
-     * 为用户生成变色龙哈希所需的陷门和公开参数
+     * 为用户生成变色龙哈希所需的陷门和公开参数，陷门只保存在内存中，公钥Y持久化
      *
      * @param user 用户
      */
@@ -51,4 +51,23 @@ public interface IChameleonService {
      * @return 验证成功返回true
      */
     boolean verifyHash(Element msg, String hash, UserChameleonTrap trap, Element usingR);
+
+    /**
+     * 获取用户的变色龙哈希公钥Y
+     *
+     * @param owner 用户SM2公钥字符串
+     * @return Y，用户不存在时返回null
+     */
+    Element getPublicKey(String owner);
+
+    /**
+     * 仅使用公钥验证新生成的交易信息是否满足变色龙哈希特性(即哈希值不变)
+     *
+     * @param msg    新的交易信息
+     * @param hash   原Hash值
+     * @param usingR r'
+     * @param owner  用户SM2公钥字符串
+     * @return 验证成功返回true
+     */
+    boolean verifyHash(Element msg, String hash, Element usingR, String owner);
 }
@@ -0,0 +1,82 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Transaction;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 内存交易池服务，transaction_pool表仅用于崩溃恢复
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IMempoolService {
+
+    /**
+     * 从transaction_pool表中保存的交易编码恢复交易池，仅在没有链状态快照时使用
+     */
+    void recover();
+
+    /**
+     * 按链状态快照或预写日志重放得到的交易恢复内存交易池，不写入预写日志
+     *
+     * @param restored 解码得到的交易，包含交易输出
+     */
+    void restore(Collection<Transaction> restored);
+
+    /**
+     * 复制当前交易池中的交易，用于写入链状态快照
+     *
+     * @return {@link Transaction}列表
+     */
+    List<Transaction> snapshot();
+
+    /**
+     * 提交一笔交易到交易池并唤醒等待中的矿工
+     *
+     * @param transaction {@link Transaction} 已持久化的交易
+     * @return 交易编码后超过区块字节数上限、永远无法被打包时返回false
+     */
+    boolean submit(Transaction transaction);
+
+    /**
+     * 等待交易池非空，并组装区块模板：按单位字节手续费从高到低选取交易(不从池中移除)，
+     * 直到达到数量上限或编码后的总字节数无法再容纳更多交易
+     *
+     * @param maxCount 最大交易数量
+     * @param maxBytes 交易编码后的最大总字节数
+     * @return {@link Transaction} 交易列表
+     * @throws InterruptedException 等待时被中断
+     */
+    List<Transaction> awaitTemplate(int maxCount, int maxBytes) throws InterruptedException;
+
+    /**
+     * 交易是否仍在交易池中
+     *
+     * @param id 交易ID
+     * @return 在池中则返回true
+     */
+    boolean contains(String id);
+
+    /**
+     * 从交易池中移除一笔交易
+     *
+     * @param id 交易ID
+     */
+    void remove(String id);
+
+    /**
+     * 从内存交易池中移除已被区块确认或在恢复时已无效的交易，不写入预写日志，transaction_pool表由调用方清理
+     *
+     * @param ids 交易ID
+     */
+    void evict(Collection<String> ids);
+
+    /**
+     * 获取当前交易池中的交易数量
+     *
+     * @return 交易数量
+     */
+    int size();
+}
@@ -2,6 +2,7 @@ package com.latte.blockchain.service;
 
 import com.latte.blockchain.entity.Block;
 import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
 
 import java.util.List;
 
@@ -26,7 +27,7 @@ public interface IMineService extends Runnable{
     void mineNewBlock(Block block);
 
     /**
-     * 执行交易并将交易信息添加到区块中
+     * 检查交易并将交易信息添加到区块中，交易在区块提交时才被执行
      *
      * @param block       {@link Block} 区块
      * @param transactions {@link Transaction}
@@ -35,12 +36,13 @@ public interface IMineService extends Runnable{
     boolean addTransaction(Block block, List<Transaction> transactions);
 
     /**
-     * 发放奖励给旷工
+     * 生成矿工奖励：出块奖励、按交易数量计的补贴与区块内所有交易的手续费，奖励随区块一同提交
      *
      * @param address 矿工账户
      * @param block   区块
+     * @return 奖励UTXO
      */
-    void rewardMiner(String address, Block block);
+    Utxo rewardMiner(String address, Block block);
 
     /**
      * 检查并添加新的区块到区块链中
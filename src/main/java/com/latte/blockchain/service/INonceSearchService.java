@@ -0,0 +1,32 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Block;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 工作量证明nonce搜索服务
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface INonceSearchService {
+
+    /**
+     * 为区块搜索满足难度要求的nonce值，找到后写入区块的nonce与hash
+     *
+     * @param block      {@link Block} 待计算区块，merkle根需已确定
+     * @param difficulty 难度值，即哈希值前导0比特数
+     */
+    void search(Block block, int difficulty);
+
+    /**
+     * 为区块搜索满足难度要求的nonce值，cancelled返回true时所有工作线程尽快退出
+     *
+     * @param block      {@link Block} 待计算区块，merkle根需已确定
+     * @param difficulty 难度值，即哈希值前导0比特数
+     * @param cancelled  取消条件，由工作线程周期性检查
+     * @return 找到nonce则返回true，被取消则返回false
+     */
+    boolean search(Block block, int difficulty, BooleanSupplier cancelled);
+}
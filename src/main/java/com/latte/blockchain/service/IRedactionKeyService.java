@@ -0,0 +1,35 @@
+package com.latte.blockchain.service;
+
+import it.unisa.dia.gas.jpbc.Element;
+
+/**
+ * 变色龙哈希修改密钥k = m + rx的存储服务
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IRedactionKeyService {
+
+    /**
+     * 保存交易的修改密钥
+     *
+     * @param hash 交易哈希值
+     * @param k    修改密钥
+     */
+    void put(String hash, Element k);
+
+    /**
+     * 获取交易的修改密钥
+     *
+     * @param hash 交易哈希值
+     * @return 修改密钥，不存在时返回null
+     */
+    Element get(String hash);
+
+    /**
+     * 获取已保存的修改密钥数量
+     *
+     * @return 数量
+     */
+    int size();
+}
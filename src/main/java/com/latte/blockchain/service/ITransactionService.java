@@ -2,9 +2,11 @@ package com.latte.blockchain.service;
 
 import com.latte.blockchain.entity.Transaction;
 import com.latte.blockchain.entity.TransactionDigest;
+import com.latte.blockchain.enums.RedactionStatus;
 
 import java.security.PrivateKey;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author float311
@@ -17,18 +19,27 @@ public interface ITransactionService {
      *
      * @param sender    交易发起方
      * @param recipient 交易接受方
-     * @param value     交易金额
+     * @param value     交易金额(最小单位)
+     * @param fee       手续费(最小单位)
      * @return Transaction {@link Transaction} 交易信息
      */
-    Transaction createTransaction(String sender, String recipient, float value);
+    Transaction createTransaction(String sender, String recipient, long value, long fee);
 
     /**
-     * 计算交易的输出
+     * 检查一个签名已验证的交易的输入是否仍然可用，不修改任何状态
+     *
+     * @param transaction {@link Transaction} 签名已验证的交易
+     * @return 交易合法则返回true
+     */
+    boolean validateTransaction(Transaction transaction);
+
+    /**
+     * 生成交易输出：向接收方支付交易金额，扣除手续费后的剩余金额找零给发送方
      *
      * @param transaction {@link Transaction} 交易
-     * @return 交易成功则返回true
+     * @param inputsValue 交易输入总值
      */
-    boolean processTransaction(Transaction transaction);
+    void generateOutputs(Transaction transaction, long inputsValue);
 
     /**
      * 获取交易输入的总值
@@ -36,7 +47,7 @@ public interface ITransactionService {
      * @param transaction {@link Transaction} 交易
      * @return 输入总值
      */
-    float getInputsValue(Transaction transaction);
+    long getInputsValue(Transaction transaction);
 
     /**
      * 为一个交易生成签名
@@ -54,6 +65,14 @@ public interface ITransactionService {
      */
     boolean isValidSignature(Transaction transaction);
 
+    /**
+     * 并行验证一批交易的签名
+     *
+     * @param transactions {@link Transaction} 交易列表
+     * @return 交易ID -> 签名是否合法
+     */
+    Map<String, Boolean> verifySignatures(List<Transaction> transactions);
+
     /**
      * 获取指定ID的交易信息
      * @param id 交易ID
@@ -62,4 +81,13 @@ public interface ITransactionService {
     String getTransaction(String id);
 
     void modifyTransaction(String sender, String id);
+
+    /**
+     * 批量修改同一用户发起的交易信息，所有修改结果在一个JDBC批次中写入
+     *
+     * @param sender 发起方账户地址
+     * @param ids    交易ID
+     * @return 交易ID -> 修改结果，顺序与ids一致
+     */
+    Map<String, RedactionStatus> modifyTransactions(String sender, List<String> ids);
 }
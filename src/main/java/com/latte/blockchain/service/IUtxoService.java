@@ -0,0 +1,66 @@
+package com.latte.blockchain.service;
+
+import com.latte.blockchain.entity.Utxo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 全局UTXO集合服务，内存中的UTXO集合为权威数据，global_utxo表仅用于持久化
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public interface IUtxoService {
+
+    /**
+     * 从global_utxo表重建内存UTXO集合，仅在没有链状态快照时使用
+     */
+    void rebuild();
+
+    /**
+     * 由链状态快照恢复内存UTXO集合
+     *
+     * @param restored 快照中的UTXO
+     */
+    void restore(Collection<Utxo> restored);
+
+    /**
+     * 复制当前的UTXO集合，用于写入链状态快照，调用方需保证期间没有区块提交
+     *
+     * @return {@link Utxo}列表
+     */
+    List<Utxo> snapshot();
+
+    /**
+     * 将已提交区块的UTXO变化应用到内存集合，数据库写入由区块提交服务完成
+     *
+     * @param spentIds 被消耗的UTXO id
+     * @param created  新产生的UTXO
+     */
+    void applyBlock(Collection<String> spentIds, Collection<Utxo> created);
+
+    /**
+     * 获取一个未被消耗的UTXO
+     *
+     * @param id UTXO的id
+     * @return {@link Utxo}，不存在则返回null
+     */
+    Utxo getUtxo(String id);
+
+    /**
+     * 获取账户余额
+     *
+     * @param owner 账户公钥字符串
+     * @return 账户余额
+     */
+    long getBalance(String owner);
+
+    /**
+     * 获取账户所有未被消耗的UTXO
+     *
+     * @param owner 账户公钥字符串
+     * @return {@link Utxo}列表快照
+     */
+    List<Utxo> getUtxos(String owner);
+}
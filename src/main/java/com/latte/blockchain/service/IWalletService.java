@@ -14,25 +14,26 @@ public interface IWalletService {
      * 获取账余额
      *
      * @param wallet {@link Wallet} 用户钱包
-     * @return float
+     * @return 余额(最小单位)
      */
-    float getBalance(Wallet wallet);
+    long getBalance(Wallet wallet);
 
     /**
      * 获取账余额
      *
      * @param address 用户钱包地址
-     * @return 钱包余额
+     * @return 钱包余额(最小单位)
      */
-    float getBalance(String address);
+    long getBalance(String address);
 
     /**
      * 向recipient发起一笔值为value的交易
      *
      * @param sender    发送方
      * @param recipient 接收方
-     * @param value     交易值
+     * @param value     交易值(最小单位)
+     * @param fee       手续费(最小单位)
      * @return {@link Transaction} 交易
      */
-    Transaction sendFunds(String sender, String recipient, float value);
+    Transaction sendFunds(String sender, String recipient, long value, long fee);
 }
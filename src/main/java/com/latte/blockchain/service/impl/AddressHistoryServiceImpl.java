@@ -0,0 +1,169 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.repository.TransactionRepo;
+import com.latte.blockchain.service.IAddressHistoryService;
+import com.latte.blockchain.utils.StripedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 账户交易历史索引，每个账户在首次查询时从数据库加载最近的交易，此后随新交易增量维护，
+ * 落在内存范围内的查询无需访问数据库。建立索引的账户数量有上限，超出时淘汰最久未使用的账户，
+ * 被淘汰的账户下次查询时重新从数据库加载
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+public class AddressHistoryServiceImpl implements IAddressHistoryService {
+
+    /**
+     * 交易排序：时间戳越晚越靠前，相同时按交易ID倒序，与数据库查询顺序一致
+     */
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparingLong((Entry entry) -> entry.timeStamp)
+            .thenComparing(entry -> entry.id).reversed();
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    /**
+     * 账户地址 -> 最近的交易
+     */
+    private final StripedLruCache<String, RecentTransactions> recent =
+            new StripedLruCache<>(LatteChainConfEnum.ADDRESS_HISTORY_ACCOUNTS);
+
+    @Override
+    public void record(Transaction transaction) {
+        Entry entry = new Entry(transaction.getId(), transaction.getTimeStamp());
+        add(transaction.getSenderString(), entry);
+        if (!transaction.getRecipientString().equals(transaction.getSenderString())) {
+            add(transaction.getRecipientString(), entry);
+        }
+    }
+
+    @Override
+    public List<String> getTransactionIds(String address, Long beforeTimeStamp, String beforeId, int limit) {
+        Entry cursor = beforeTimeStamp == null || beforeId == null ? null : new Entry(beforeId, beforeTimeStamp);
+        RecentTransactions transactions = recent.computeIfAbsent(address, key -> new RecentTransactions());
+        synchronized (transactions) {
+            if (!transactions.loaded) {
+                List<Entry> latest = load(address, null, LatteChainConfEnum.ADDRESS_HISTORY_CAPACITY);
+                for (Entry entry : latest) {
+                    transactions.add(entry);
+                }
+                // 加载满容量时数据库中可能还有更早的交易
+                transactions.truncated |= latest.size() == LatteChainConfEnum.ADDRESS_HISTORY_CAPACITY;
+                transactions.loaded = true;
+            }
+            List<String> ids = transactions.before(cursor, limit);
+            // 内存中的交易不足一页且更早的交易已被淘汰时才需要查询数据库
+            if (ids.size() == limit || !transactions.truncated) {
+                return ids;
+            }
+        }
+        return ids(load(address, cursor, limit));
+    }
+
+    /**
+     * 只更新已建立索引的账户，其余账户在首次查询时从数据库加载，交易此前已写入数据库
+     */
+    private void add(String address, Entry entry) {
+        RecentTransactions transactions = recent.get(address);
+        if (transactions != null) {
+            transactions.add(entry);
+        }
+    }
+
+    private static List<String> ids(List<Entry> entries) {
+        List<String> ids = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * 分别沿发起方与接收方索引读取游标之前的至多limit笔交易，合并后取最新的limit笔
+     */
+    private List<Entry> load(String address, Entry cursor, int limit) {
+        long timeStamp = cursor == null ? Long.MAX_VALUE : cursor.timeStamp;
+        String id = cursor == null ? "" : cursor.id;
+        PageRequest page = PageRequest.of(0, limit);
+        NavigableSet<Entry> merged = new TreeSet<>(NEWEST_FIRST);
+        for (TransactionRepo.HistoryView view : transactionRepo.findSentBefore(address, timeStamp, id, page)) {
+            merged.add(new Entry(view.getId(), view.getTimeStamp()));
+        }
+        for (TransactionRepo.HistoryView view : transactionRepo.findReceivedBefore(address, timeStamp, id, page)) {
+            merged.add(new Entry(view.getId(), view.getTimeStamp()));
+        }
+        List<Entry> entries = new ArrayList<>(limit);
+        for (Entry entry : merged) {
+            if (entries.size() == limit) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * 交易ID与时间戳
+     */
+    private static class Entry {
+
+        private final String id;
+
+        private final long timeStamp;
+
+        private Entry(String id, long timeStamp) {
+            this.id = id;
+            this.timeStamp = timeStamp;
+        }
+    }
+
+    /**
+     * 一个账户最近的交易，超出容量时淘汰最早的交易，所有访问需持有该对象的锁
+     */
+    private static class RecentTransactions {
+
+        private final NavigableSet<Entry> entries = new TreeSet<>(NEWEST_FIRST);
+
+        /**
+         * 是否已从数据库加载
+         */
+        private boolean loaded;
+
+        /**
+         * 是否有更早的交易已被淘汰
+         */
+        private boolean truncated;
+
+        private synchronized void add(Entry entry) {
+            entries.add(entry);
+            if (entries.size() > LatteChainConfEnum.ADDRESS_HISTORY_CAPACITY) {
+                entries.pollLast();
+                truncated = true;
+            }
+        }
+
+        private synchronized List<String> before(Entry cursor, int limit) {
+            List<String> ids = new ArrayList<>(limit);
+            for (Entry entry : cursor == null ? entries : entries.tailSet(cursor, false)) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(entry.id);
+            }
+            return ids;
+        }
+    }
+}
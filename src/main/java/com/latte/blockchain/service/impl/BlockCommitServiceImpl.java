@@ -0,0 +1,148 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
+import com.latte.blockchain.service.IBlockCommitService;
+import com.latte.blockchain.service.IBlockStoreService;
+import com.latte.blockchain.service.IChainSnapshotService;
+import com.latte.blockchain.service.IChainWalService;
+import com.latte.blockchain.service.IMempoolService;
+import com.latte.blockchain.service.IUtxoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 区块提交服务：区块先写入预写日志，其所有数据库写入在同一事务中完成，插入语句由Hibernate按批次发送。
+ * 事务回滚时追加BLOCK_ABORT记录，恢复时不会重放回滚的区块
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+public class BlockCommitServiceImpl implements IBlockCommitService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private IBlockStoreService blockStore;
+
+    @Autowired
+    private IUtxoService utxoService;
+
+    @Autowired
+    private IMempoolService mempoolService;
+
+    @Autowired
+    private IChainWalService walService;
+
+    @Autowired
+    private IChainSnapshotService snapshotService;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void commit(Block block, Utxo reward) {
+        long position = walService.logBlock(block, reward);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // 在所有afterCommit回调之后执行，此时内存状态已包含该区块
+                if (status == STATUS_COMMITTED) {
+                    snapshotService.blockCommitted(position, block);
+                } else if (status == STATUS_ROLLED_BACK) {
+                    walService.logBlockAbort(position);
+                }
+            }
+        });
+        BlockDelta delta = new BlockDelta(block, reward);
+        write(block, delta, false);
+        apply(delta);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void replay(Block block, Utxo reward) {
+        BlockDelta delta = new BlockDelta(block, reward);
+        if (blockStore.getBlockByHash(block.getHash()) == null) {
+            write(block, delta, true);
+        }
+        apply(delta);
+    }
+
+    /**
+     * 在当前事务中写入区块引起的所有数据库变化
+     *
+     * @param replaying 是否为启动恢复，此时数据库可能已包含部分变化，交易输出改为合并写入
+     */
+    private void write(Block block, BlockDelta delta, boolean replaying) {
+        if (!delta.spentIds.isEmpty()) {
+            entityManager.createQuery("delete from Utxo u where u.id in :ids")
+                    .setParameter("ids", delta.spentIds).executeUpdate();
+        }
+        for (Utxo utxo : delta.created) {
+            if (replaying) {
+                entityManager.merge(utxo);
+            } else {
+                entityManager.persist(utxo);
+            }
+        }
+        if (!delta.transactionIds.isEmpty()) {
+            entityManager.createQuery("delete from TransactionsPoolEntity p where p.transactionIndex in :ids")
+                    .setParameter("ids", delta.transactionIds).executeUpdate();
+        }
+        // 区块存储非数据库实现时在事务提交后才追加区块
+        blockStore.save(block);
+    }
+
+    /**
+     * 事务成功提交后再将区块引起的变化应用到内存状态
+     */
+    private void apply(BlockDelta delta) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                utxoService.applyBlock(delta.spentIds, delta.created);
+                mempoolService.evict(delta.transactionIds);
+            }
+        });
+    }
+
+    /**
+     * 一个区块引起的UTXO与交易池变化
+     */
+    private static class BlockDelta {
+
+        private final Set<String> spentIds = new HashSet<>();
+
+        private final List<Utxo> created = new ArrayList<>();
+
+        private final List<String> transactionIds = new ArrayList<>();
+
+        private BlockDelta(Block block, Utxo reward) {
+            if (block.getTransactions() != null) {
+                for (Transaction transaction : block.getTransactions()) {
+                    // 交易本身在创建时已完整保存，提交时无需再次写入
+                    spentIds.addAll(transaction.getInputUtxosId());
+                    if (transaction.getOutputUtxos() != null) {
+                        created.addAll(transaction.getOutputUtxos());
+                    }
+                    transactionIds.add(transaction.getId());
+                }
+            }
+            if (reward != null) {
+                created.add(reward);
+            }
+        }
+    }
+}
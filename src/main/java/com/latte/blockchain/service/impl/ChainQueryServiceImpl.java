@@ -0,0 +1,138 @@
+package com.latte.blockchain.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.repository.TransactionRepo;
+import com.latte.blockchain.service.IAddressHistoryService;
+import com.latte.blockchain.service.IBlockStoreService;
+import com.latte.blockchain.service.IChainQueryService;
+import com.latte.blockchain.utils.JsonUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 链数据查询服务，所有查询均为键集分页：区块按blocks.id，账户交易按(time_stamp, transaction_id)，
+ * 每次查询只读取一页或一小批记录
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+public class ChainQueryServiceImpl implements IChainQueryService {
+
+    @Autowired
+    private IBlockStoreService blockStore;
+
+    @Autowired
+    private IAddressHistoryService addressHistoryService;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeBlocks(long start, Long end, int limit, OutputStream out) throws IOException {
+        Long maxHeight = blockStore.getMaxHeight();
+        long last = maxHeight == null ? -1 : end == null ? maxHeight : Math.min(end, maxHeight);
+        long stop = Math.min(last + 1, start + limit);
+        long height = start;
+        try (JsonGenerator generator = startPage(out)) {
+            while (height < stop) {
+                List<Block> blocks = blockStore.getBlocks(height,
+                        (int) Math.min(LatteChainConfEnum.QUERY_BLOCK_CHUNK_SIZE, stop - height));
+                if (blocks.isEmpty()) {
+                    break;
+                }
+                for (Block block : blocks) {
+                    generator.writeObject(block);
+                }
+                height = blocks.get(blocks.size() - 1).getId() + 1;
+                generator.flush();
+                entityManager.clear();
+            }
+            generator.writeEndArray();
+            if (height <= last) {
+                generator.writeNumberField("next", height);
+            } else {
+                generator.writeNullField("next");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeBlockTransactions(long height, int start, int limit, OutputStream out) throws IOException {
+        Block block = blockStore.getBlock(height);
+        List<Transaction> transactions = block == null ? null : block.getTransactions();
+        int total = transactions == null ? 0 : transactions.size();
+        int stop = (int) Math.min(total, (long) start + limit);
+        try (JsonGenerator generator = startPage(out)) {
+            for (int i = Math.max(0, start); i < stop; i++) {
+                generator.writeObject(transactions.get(i));
+            }
+            generator.writeEndArray();
+            if (stop < total) {
+                generator.writeNumberField("next", stop);
+            } else {
+                generator.writeNullField("next");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeUserTransactions(String address, Long beforeTimeStamp, String beforeId, int limit,
+                                      OutputStream out) throws IOException {
+        List<String> ids = addressHistoryService.getTransactionIds(address, beforeTimeStamp, beforeId, limit);
+        Map<String, Transaction> transactions = transactionRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        Transaction last = null;
+        try (JsonGenerator generator = startPage(out)) {
+            for (String id : ids) {
+                Transaction transaction = transactions.get(id);
+                if (transaction != null) {
+                    generator.writeObject(transaction);
+                    last = transaction;
+                }
+            }
+            generator.writeEndArray();
+            if (ids.size() == limit && last != null) {
+                generator.writeObjectFieldStart("next");
+                generator.writeNumberField("timeStamp", last.getTimeStamp());
+                generator.writeStringField("id", last.getId());
+                generator.writeEndObject();
+            } else {
+                generator.writeNullField("next");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * 写出页对象的开头，直到items数组的起始，关闭生成器时不关闭响应输出流
+     */
+    private static JsonGenerator startPage(OutputStream out) throws IOException {
+        JsonGenerator generator = JsonUtil.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        return generator;
+    }
+}
@@ -1,10 +1,32 @@
 package com.latte.blockchain.service.impl;
 
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.ChainSnapshot;
+import com.latte.blockchain.entity.ChainTip;
+import com.latte.blockchain.entity.ChainWalRecord;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.enums.WalRecordType;
+import com.latte.blockchain.service.IBlockCommitService;
+import com.latte.blockchain.service.IBlockStoreService;
+import com.latte.blockchain.service.IChainSnapshotService;
+import com.latte.blockchain.service.IChainWalService;
+import com.latte.blockchain.service.IMempoolService;
 import com.latte.blockchain.service.IMineService;
 import com.latte.blockchain.service.IChainService;
+import com.latte.blockchain.service.IUtxoService;
+import com.latte.blockchain.utils.ChainTipHolder;
+import com.latte.blockchain.utils.LatteChain;
 
 import java.security.Security;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PostConstruct;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,11 +40,127 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
  * @since 2021/02/03
  */
 @Service
+@Slf4j
 public class ChainServiceImpl implements IChainService {
 
+    private final LatteChain latteChain = LatteChain.getInstance();
+
     @Autowired
     private IMineService mineService;
 
+    /**
+     * 区块存储
+     */
+    @Autowired
+    private IBlockStoreService blockStore;
+
+    @Autowired
+    private IChainWalService walService;
+
+    @Autowired
+    private IChainSnapshotService snapshotService;
+
+    @Autowired
+    private IBlockCommitService blockCommitService;
+
+    @Autowired
+    private IUtxoService utxoService;
+
+    @Autowired
+    private IMempoolService mempoolService;
+
+    /**
+     * 启动时恢复链状态：UTXO集合、交易池与链顶先由链状态快照加载，再按顺序重放预写日志中快照之后的记录，
+     * 跳过已被撤销的区块，补写已记录但未持久化的区块及交易池变化，最后写入新的快照。
+     * 只有快照功能之前的数据库在首次启动时才扫描数据库表。恢复过程不写入预写日志
+     */
+    @PostConstruct
+    public void recover() {
+        ChainTipHolder chainTip = latteChain.getChainTip();
+        ChainSnapshot snapshot = snapshotService.load();
+        long position = -1;
+        boolean scanned = false;
+        if (snapshot != null) {
+            utxoService.restore(snapshot.getUtxos());
+            mempoolService.restore(snapshot.getTransactions());
+            chainTip.publish(snapshot.getTip());
+            position = snapshot.getPosition();
+        } else if (blockStore.getMaxHeight() != null) {
+            utxoService.rebuild();
+            mempoolService.recover();
+            loadChainTip();
+            scanned = true;
+        }
+
+        List<ChainWalRecord> records = walService.readAfter(position);
+        Set<Long> aborted = new HashSet<>();
+        for (ChainWalRecord record : records) {
+            if (record.getType() == WalRecordType.BLOCK_ABORT) {
+                aborted.add(record.getAbortedPosition());
+            }
+        }
+        Map<String, Transaction> submitted = new LinkedHashMap<>();
+        Set<String> removed = new LinkedHashSet<>();
+        int replayed = 0;
+        for (ChainWalRecord record : records) {
+            switch (record.getType()) {
+                case POOL_SUBMIT:
+                    submitted.put(record.getTransactionId(), record.getTransaction());
+                    removed.remove(record.getTransactionId());
+                    break;
+                case POOL_REMOVE:
+                    submitted.remove(record.getTransactionId());
+                    removed.add(record.getTransactionId());
+                    break;
+                case BLOCK:
+                    if (aborted.contains(record.getPosition())) {
+                        break;
+                    }
+                    Block block = record.getBlock();
+                    if (block.getTransactions() != null) {
+                        block.getTransactions().forEach(transaction -> submitted.remove(transaction.getId()));
+                    }
+                    ChainTip tip = chainTip.peek();
+                    boolean extendsTip = tip == null ? block.getId() == 0
+                            : block.getId() == tip.getHeight() && block.getPreviousHash().equals(tip.getHash());
+                    if (!extendsTip) {
+                        // 已由数据库表加载的区块
+                        break;
+                    }
+                    blockCommitService.replay(block, record.getReward());
+                    chainTip.publish(new ChainTip(block.getId() + 1, block.getHash(), block.getTimeStamp()));
+                    replayed++;
+                    break;
+                default:
+            }
+        }
+        // 交易在进入交易池后才追加日志，期间可能已被打包，输入已被消耗的交易不再恢复
+        submitted.values().removeIf(transaction -> transaction.getInputUtxosId().stream()
+                .anyMatch(id -> utxoService.getUtxo(id) == null));
+        mempoolService.restore(submitted.values());
+        mempoolService.evict(removed);
+
+        ChainTip tip = chainTip.peek();
+        if (tip != null && (scanned || !records.isEmpty())) {
+            snapshotService.write(records.isEmpty() ? position : records.get(records.size() - 1).getPosition(), tip);
+        }
+        log.info("[Chain WAL] 已重放快照之后的" + records.size() + "条日志记录，补写" + replayed + "个区块，链顶高度: " +
+                (tip == null ? 0 : tip.getHeight()));
+    }
+
+    /**
+     * 从区块存储加载链顶，此后链顶只由区块提交更新
+     */
+    private void loadChainTip() {
+        Long maxId = blockStore.getMaxHeight();
+        if (maxId == null) {
+            return;
+        }
+        Block tipBlock = blockStore.getBlock(maxId);
+        latteChain.getChainTip().publish(new ChainTip(maxId + 1, tipBlock.getHash(), tipBlock.getTimeStamp()));
+        log.info("[Chain Tip] 已加载链顶，高度: " + (maxId + 1));
+    }
+
     /**
      * 初始化一个区块链系统
      *
@@ -33,4 +171,14 @@ public class ChainServiceImpl implements IChainService {
         Security.addProvider(new BouncyCastleProvider());
         return mineService.initChain();
     }
+
+    /**
+     * 获取当前链顶，不访问区块存储
+     *
+     * @return {@link ChainTip}，链未初始化时返回null
+     */
+    @Override
+    public ChainTip getChainTip() {
+        return latteChain.getChainTip().peek();
+    }
 }
@@ -0,0 +1,217 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.ChainSnapshot;
+import com.latte.blockchain.entity.ChainTip;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.service.IChainSnapshotService;
+import com.latte.blockchain.service.IChainWalService;
+import com.latte.blockchain.service.IMempoolService;
+import com.latte.blockchain.service.IUtxoService;
+import com.latte.blockchain.utils.BinaryCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * 链状态快照服务，快照保存在预写日志目录下的snapshot文件中
+ * <p>
+ * 文件格式为[int 魔数][long 日志位置][long 链高度][short 哈希长度][链顶哈希][long 链顶时间戳]
+ * [int UTXO数量][UTXO二进制编码...][int 交易数量][交易二进制编码...][int CRC32]。
+ * 状态在区块提交线程中复制，区块提交已串行执行，复制期间UTXO集合不会变化；文件在后台线程中写入临时文件、
+ * 刷盘后原子替换，随后删除快照之前的预写日志段。上一次写入尚未完成时跳过本次快照。
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class ChainSnapshotServiceImpl implements IChainSnapshotService {
+
+    /**
+     * 文件头魔数("LCSS")
+     */
+    private static final int MAGIC = 0x4C435353;
+
+    @Autowired
+    private IChainWalService walService;
+
+    @Autowired
+    private IUtxoService utxoService;
+
+    @Autowired
+    private IMempoolService mempoolService;
+
+    private final Path snapshotPath;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "chain-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    /**
+     * 上次快照之后提交的区块数量，只在区块提交线程中读写
+     */
+    private int sinceSnapshot;
+
+    /**
+     * 是否已存在快照，不存在时下一个区块提交后立即写入
+     */
+    private volatile boolean snapshotted;
+
+    /**
+     * @param directory 预写日志存储目录
+     */
+    public ChainSnapshotServiceImpl(@Value("${latte-chain.storage.wal:data/wal}") String directory) {
+        this.snapshotPath = Paths.get(directory, "snapshot");
+    }
+
+    @Override
+    public ChainSnapshot load() {
+        if (!Files.exists(snapshotPath)) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.limit() - Integer.BYTES);
+            if (buffer.getInt() != MAGIC || buffer.getInt(buffer.limit() - Integer.BYTES) != (int) crc.getValue()) {
+                log.warn("[Chain Snapshot] 快照文件已损坏，忽略");
+                return null;
+            }
+            long position = buffer.getLong();
+            long height = buffer.getLong();
+            byte[] hash = new byte[buffer.getShort()];
+            buffer.get(hash);
+            ChainTip tip = new ChainTip(height, new String(hash, StandardCharsets.UTF_8), buffer.getLong());
+            int utxoCount = buffer.getInt();
+            List<Utxo> utxos = new ArrayList<>(utxoCount);
+            for (int i = 0; i < utxoCount; i++) {
+                utxos.add(BinaryCodec.decodeUtxo(buffer));
+            }
+            int transactionCount = buffer.getInt();
+            List<Transaction> transactions = new ArrayList<>(transactionCount);
+            for (int i = 0; i < transactionCount; i++) {
+                transactions.add(BinaryCodec.decodeTransaction(buffer));
+            }
+            snapshotted = true;
+            return new ChainSnapshot(position, tip, utxos, transactions);
+        } catch (IOException | RuntimeException e) {
+            log.warn("[Chain Snapshot] 快照文件无法读取，忽略", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void blockCommitted(long position, Block block) {
+        if (snapshotted && ++sinceSnapshot < LatteChainConfEnum.WAL_SNAPSHOT_INTERVAL) {
+            return;
+        }
+        if (!writing.compareAndSet(false, true)) {
+            return;
+        }
+        sinceSnapshot = 0;
+        ChainSnapshot snapshot = capture(position,
+                new ChainTip(block.getId() + 1, block.getHash(), block.getTimeStamp()));
+        try {
+            writer.execute(() -> {
+                try {
+                    persist(snapshot);
+                } finally {
+                    writing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            writing.set(false);
+            log.warn("[Chain Snapshot] 快照任务提交失败", e);
+        }
+    }
+
+    @Override
+    public void write(long position, ChainTip tip) {
+        persist(capture(position, tip));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private ChainSnapshot capture(long position, ChainTip tip) {
+        return new ChainSnapshot(position, tip, utxoService.snapshot(), mempoolService.snapshot());
+    }
+
+    /**
+     * 写入快照文件并删除快照之前的预写日志段，失败时保留原有快照与日志
+     */
+    private void persist(ChainSnapshot snapshot) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeLong(snapshot.getPosition());
+            out.writeLong(snapshot.getTip().getHeight());
+            byte[] hash = snapshot.getTip().getHash().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(hash.length);
+            out.write(hash);
+            out.writeLong(snapshot.getTip().getTimeStamp());
+            out.writeInt(snapshot.getUtxos().size());
+            for (Utxo utxo : snapshot.getUtxos()) {
+                out.write(BinaryCodec.toBytes(utxo));
+            }
+            out.writeInt(snapshot.getTransactions().size());
+            for (Transaction transaction : snapshot.getTransactions()) {
+                out.write(BinaryCodec.toBytes(transaction));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+
+            Files.createDirectories(snapshotPath.getParent());
+            Path temp = snapshotPath.resolveSibling("snapshot.tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("[Chain Snapshot] 快照写入失败", e);
+            return;
+        }
+        snapshotted = true;
+        walService.truncateBefore(snapshot.getPosition());
+        log.info("[Chain Snapshot] 已写入快照，链顶高度: " + snapshot.getTip().getHeight() + "，UTXO: " +
+                snapshot.getUtxos().size() + "，交易池: " + snapshot.getTransactions().size());
+    }
+}
@@ -0,0 +1,206 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.ChainWalRecord;
+import com.latte.blockchain.entity.Utxo;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.enums.WalRecordType;
+import com.latte.blockchain.service.IChainWalService;
+import com.latte.blockchain.utils.BinaryCodec;
+import com.latte.blockchain.utils.MappedAppendLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于内存映射段文件的链状态预写日志
+ * <p>
+ * 记录格式为[byte 类型][内容]：BLOCK记录内容为区块的二进制编码及可选的矿工奖励，BLOCK_ABORT记录内容为
+ * 被撤销的BLOCK记录的位置，POOL_SUBMIT记录内容为交易的二进制编码，POOL_REMOVE记录内容为交易ID。
+ * 刷盘采用组提交：同一时刻只有一个写入者执行刷盘，其余写入者等待，一次刷盘覆盖此前追加的所有记录。
+ * 链状态快照持久化后，其对应位置所在段之前的段文件随之删除，启动时只需重放快照之后的记录。
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class ChainWalServiceImpl implements IChainWalService {
+
+    private final MappedAppendLog walLog;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition flushed = lock.newCondition();
+
+    /**
+     * 已追加的记录数量
+     */
+    private long appended;
+
+    /**
+     * 已刷盘的记录数量
+     */
+    private long durable;
+
+    /**
+     * 是否有写入者正在刷盘
+     */
+    private boolean flushing;
+
+    /**
+     * @param directory 存储目录
+     */
+    public ChainWalServiceImpl(@Value("${latte-chain.storage.wal:data/wal}") String directory) {
+        try {
+            walLog = new MappedAppendLog(Paths.get(directory), "wal", LatteChainConfEnum.WAL_SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开预写日志" + directory, e);
+        }
+    }
+
+    @Override
+    public long logBlock(Block block, Utxo reward) {
+        byte[] blockBytes = BinaryCodec.toBytes(block);
+        byte[] rewardBytes = reward == null ? new byte[0] : BinaryCodec.toBytes(reward);
+        ByteBuffer record = ByteBuffer.allocate(1 + blockBytes.length + 1 + rewardBytes.length);
+        record.put((byte) WalRecordType.BLOCK.ordinal()).put(blockBytes);
+        record.put((byte) (reward == null ? 0 : 1)).put(rewardBytes);
+        return appendDurably(record.array());
+    }
+
+    @Override
+    public void logBlockAbort(long blockPosition) {
+        appendDurably(ByteBuffer.allocate(1 + Long.BYTES)
+                .put((byte) WalRecordType.BLOCK_ABORT.ordinal()).putLong(blockPosition).array());
+    }
+
+    @Override
+    public void logPoolAdd(byte[] transaction) {
+        appendDurably(ByteBuffer.allocate(1 + transaction.length)
+                .put((byte) WalRecordType.POOL_SUBMIT.ordinal()).put(transaction).array());
+    }
+
+    @Override
+    public void logPoolRemove(String transactionId) {
+        appendDurably(poolRecord(WalRecordType.POOL_REMOVE, transactionId));
+    }
+
+    @Override
+    public List<ChainWalRecord> readAfter(long after) {
+        List<ChainWalRecord> records = new ArrayList<>();
+        walLog.forEach(after, (position, data) -> records.add(decode(position, ByteBuffer.wrap(data))));
+        return records;
+    }
+
+    @Override
+    public void truncateBefore(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            int removed = walLog.truncateBefore(position);
+            if (removed > 0) {
+                log.info("[Chain WAL] 已删除" + removed + "个快照之前的日志段");
+            }
+        } catch (IOException e) {
+            // 未删除的段只会在下次启动时被跳过
+            log.warn("[Chain WAL] 日志段删除失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        walLog.close();
+    }
+
+    /**
+     * 追加记录并等待其刷盘
+     *
+     * @param record 记录
+     */
+    private long appendDurably(byte[] record) {
+        long position;
+        long sequence;
+        lock.lock();
+        try {
+            position = walLog.append(record);
+            sequence = ++appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException("预写日志写入失败", e);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        return position;
+    }
+
+    /**
+     * 等待第sequence条记录刷盘，没有写入者在刷盘时由当前线程负责刷盘
+     *
+     * @param sequence 记录序号
+     */
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                long target = appended;
+                boolean forced = false;
+                lock.unlock();
+                try {
+                    walLog.force();
+                    forced = true;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                    }
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] poolRecord(WalRecordType type, String transactionId) {
+        byte[] id = transactionId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + Short.BYTES + id.length)
+                .put((byte) type.ordinal()).putShort((short) id.length).put(id).array();
+    }
+
+    private static ChainWalRecord decode(long position, ByteBuffer record) {
+        WalRecordType type = WalRecordType.values()[record.get()];
+        if (type == WalRecordType.BLOCK) {
+            Block block = BinaryCodec.decodeBlock(record);
+            Utxo reward = record.get() == 0 ? null : BinaryCodec.decodeUtxo(record);
+            return ChainWalRecord.ofBlock(position, block, reward);
+        }
+        if (type == WalRecordType.BLOCK_ABORT) {
+            return ChainWalRecord.ofAbort(position, record.getLong());
+        }
+        if (type == WalRecordType.POOL_SUBMIT) {
+            return ChainWalRecord.ofSubmit(position, BinaryCodec.decodeTransaction(record));
+        }
+        byte[] id = new byte[record.getShort()];
+        record.get(id);
+        return ChainWalRecord.ofRemove(position, new String(id, StandardCharsets.UTF_8));
+    }
+}
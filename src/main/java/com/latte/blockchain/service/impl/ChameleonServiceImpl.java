@@ -1,40 +1,140 @@
 package com.latte.blockchain.service.impl;
 
+import com.latte.blockchain.entity.ChameleonParameter;
+import com.latte.blockchain.entity.ChameleonPublicKey;
 import com.latte.blockchain.entity.Transaction;
 import com.latte.blockchain.entity.UserChameleonTrap;
 import com.latte.blockchain.entity.Wallet;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.repository.ChameleonParameterRepo;
+import com.latte.blockchain.repository.ChameleonPublicKeyRepo;
 import com.latte.blockchain.service.IChameleonService;
+import com.latte.blockchain.service.IRedactionKeyService;
 import com.latte.blockchain.utils.CryptoUtil;
 import it.unisa.dia.gas.jpbc.Element;
+import it.unisa.dia.gas.jpbc.ElementPowPreProcessing;
 import it.unisa.dia.gas.jpbc.Field;
 import it.unisa.dia.gas.jpbc.Pairing;
 import it.unisa.dia.gas.plaf.jpbc.pairing.PairingFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 
 /**
  * @author lzwgiter
  * @since 2021/06/02
  */
 @Service
+@Slf4j
 public class ChameleonServiceImpl implements IChameleonService {
     private Pairing pairing;
 
     /**
-     * G1生成元
+     * G1生成元，保存在系统参数表中并在重启后沿用，此前运行中保存的公钥Y = xP因此仍可用于验证。
+     * 陷门x只保存在内存中，随预置账户在每次启动时重新生成
      */
     private Element P;
 
+    /**
+     * P的固定基预计算表，P在setup()后不再变化，所有xP形式的标量乘均经由该表计算
+     */
+    private ElementPowPreProcessing preP;
+
     private Field g1;
 
     private Field zr;
 
+    /**
+     * 变色龙哈希系统参数DAO
+     */
+    @Autowired
+    private ChameleonParameterRepo parameterRepo;
+
+    /**
+     * 变色龙哈希公钥DAO
+     */
+    @Autowired
+    private ChameleonPublicKeyRepo publicKeyRepo;
+
+    /**
+     * 修改密钥存储
+     */
+    @Autowired
+    private IRedactionKeyService redactionKeyService;
+
+    /**
+     * 用户公钥缓存: 用户SM2公钥字符串 -> Y
+     */
+    private final Map<String, Element> publicKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 每个用户预先计算的随机数元组: 用户SM2公钥字符串 -> 元组
+     */
+    private final Map<String, BlockingQueue<ChameleonTuple>> tuplePools = new ConcurrentHashMap<>();
+
+    /**
+     * 已提交补充任务的用户
+     */
+    private final Set<String> refilling = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 补充元组的后台线程
+     */
+    private ExecutorService refillExecutor;
+
+    public ChameleonServiceImpl() {
+    }
+
+    /**
+     * 脱离Spring容器使用(如基准测试)时直接指定依赖
+     *
+     * @param parameterRepo       变色龙哈希系统参数DAO
+     * @param publicKeyRepo       变色龙哈希公钥DAO
+     * @param redactionKeyService 修改密钥存储
+     */
+    public ChameleonServiceImpl(ChameleonParameterRepo parameterRepo, ChameleonPublicKeyRepo publicKeyRepo,
+                                IRedactionKeyService redactionKeyService) {
+        this.parameterRepo = parameterRepo;
+        this.publicKeyRepo = publicKeyRepo;
+        this.redactionKeyService = redactionKeyService;
+    }
+
     @Override
     public void setup() {
-        pairing = PairingFactory.getPairing("crypto/a.properties");
+        pairing = PairingFactory.getPairing(LatteChainConfEnum.PAIRING_PARAMETERS);
         this.g1 = pairing.getG1();
         this.zr = pairing.getZr();
-        this.P = g1.newRandomElement().getImmutable();
+        this.P = parameterRepo.findById(LatteChainConfEnum.CHAMELEON_GENERATOR_PARAMETER)
+                .map(record -> g1.newElementFromBytes(record.getValue()).getImmutable())
+                .orElseGet(() -> {
+                    Element generator = g1.newRandomElement().getImmutable();
+                    parameterRepo.save(new ChameleonParameter(LatteChainConfEnum.CHAMELEON_GENERATOR_PARAMETER,
+                            generator.toBytes()));
+                    return generator;
+                });
+        this.preP = P.getElementPowPreProcessing();
+        this.refillExecutor = Executors.newFixedThreadPool(LatteChainConfEnum.CHAMELEON_POOL_WORKERS, task -> {
+            Thread thread = new Thread(task, "chameleon-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refillExecutor != null) {
+            refillExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -43,25 +143,41 @@ public class ChameleonServiceImpl implements IChameleonService {
         用户秘密x
          */
         Element x = zr.newRandomElement().getImmutable();
-        user.setTrap(new UserChameleonTrap(x));
+        // 公钥Y = xP只依赖于x，计算一次后缓存并持久化
+        Element publicKey = preP.powZn(x).getImmutable();
+        user.setTrap(new UserChameleonTrap(x, publicKey));
+        publicKeys.put(user.getPublicKeyString(), publicKey);
+        publicKeyRepo.save(new ChameleonPublicKey(user.getPublicKeyString(), publicKey.toBytes()));
+        tuplePools.put(user.getPublicKeyString(), new ArrayBlockingQueue<>(LatteChainConfEnum.CHAMELEON_POOL_CAPACITY));
+        scheduleRefill(user);
     }
 
     @Override
-    public void generateHash(Transaction transaction, Wallet user) {
-        Element r = zr.newRandomElement().getImmutable();
-        Element msg = zr.newRandomElement().getImmutable();
-        Element Y = P.mulZn(user.getTrap().getX()).getImmutable();
+    public Element getPublicKey(String owner) {
+        return publicKeys.computeIfAbsent(owner, key -> publicKeyRepo.findById(key)
+                .map(record -> g1.newElementFromBytes(record.getPublicKey()).getImmutable())
+                .orElse(null));
+    }
 
-        // hash = mP + rY; Y = xP
-        Element mMulP = P.mulZn(msg).getImmutable();
-        Element rMulY = Y.mulZn(r).getImmutable();
-        Element result = mMulP.add(rMulY);
+    @Override
+    public void generateHash(Transaction transaction, Wallet user) {
+        // 优先使用预先计算的元组，仅在元组耗尽时同步计算
+        BlockingQueue<ChameleonTuple> pool = tuplePools.get(user.getPublicKeyString());
+        ChameleonTuple tuple = pool == null ? null : pool.poll();
+        if (tuple == null) {
+            tuple = newTuple(user.getTrap());
+        }
+        if (pool != null && pool.size() < LatteChainConfEnum.CHAMELEON_POOL_LOW_WATERMARK) {
+            scheduleRefill(user);
+        }
+        Element r = tuple.r;
+        Element msg = tuple.m;
         // k = m + rx
         Element rMulX = r.mul(user.getTrap().getX()).getImmutable();
         Element k = msg.add(rMulX).getImmutable();
 
-        String hash = CryptoUtil.applySha256Hash(result.toBytes());
-        user.getTrap().getKMap().put(hash, k);
+        String hash = CryptoUtil.applySha256Hash(tuple.hashPoint.toBytes());
+        redactionKeyService.put(hash, k);
         // 设置交易ID以及交易信息
         transaction.setId(hash);
         transaction.setRegistrationMsg(String.valueOf(msg.hashCode()));
@@ -82,9 +198,13 @@ public class ChameleonServiceImpl implements IChameleonService {
         // 计算r'x
         Element rMulX = newR.mul(user.getTrap().getX()).getImmutable();
         // 计算得到 m' = k - r'x
-        Element k = user.getTrap().getKMap().get(hash);
+        Element k = redactionKeyService.get(hash);
+        if (k == null) {
+            return null;
+        }
         Element calM = k.sub(rMulX).getImmutable();
-        if (verifyHash(calM, hash, user.getTrap(), newR)) {
+        // 按验证者的方式只用已公开的Y校验，陷门与公开的公钥不一致(如k来自此前运行中的陷门)时修改失败
+        if (verifyHash(calM, hash, newR, user.getPublicKeyString())) {
             return String.valueOf(calM.hashCode());
         } else {
             return null;
@@ -105,8 +225,84 @@ public class ChameleonServiceImpl implements IChameleonService {
         long startTime = System.currentTimeMillis();
         Element rMulX = usingR.mul(trap.getX()).getImmutable();
         Element mAddRMulX = msg.add(rMulX);
-        Element calHash = P.mulZn(mAddRMulX);
+        Element calHash = preP.powZn(mAddRMulX);
         String newHash = CryptoUtil.applySha256Hash(calHash.toBytes());
         return newHash.equals(hash);
     }
+
+    /**
+     * 仅使用公钥验证修改后的交易信息，无需用户陷门
+     *
+     * @param msg    新的交易信息
+     * @param hash   原Hash值
+     * @param usingR r'
+     * @param owner  用户SM2公钥字符串
+     * @return 验证成功返回true
+     */
+    @Override
+    public boolean verifyHash(Element msg, String hash, Element usingR, String owner) {
+        Element publicKey = getPublicKey(owner);
+        if (publicKey == null) {
+            return false;
+        }
+        // 计算hash' = m'P + r'Y
+        Element calHash = preP.powZn(msg).add(publicKey.mulZn(usingR));
+        String newHash = CryptoUtil.applySha256Hash(calHash.toBytes());
+        return newHash.equals(hash);
+    }
+
+    /**
+     * 计算一个随机数元组，hash = mP + rY; Y = xP
+     *
+     * @param trap 用户陷门
+     * @return 元组
+     */
+    private ChameleonTuple newTuple(UserChameleonTrap trap) {
+        Element r = zr.newRandomElement().getImmutable();
+        Element msg = zr.newRandomElement().getImmutable();
+        Element mMulP = preP.powZn(msg);
+        Element rMulY = trap.getPublicKeyTable().powZn(r);
+        return new ChameleonTuple(r, msg, mMulP.add(rMulY).getImmutable());
+    }
+
+    /**
+     * 提交后台任务将用户的元组补满，同一用户同时至多存在一个补充任务
+     *
+     * @param user 用户
+     */
+    private void scheduleRefill(Wallet user) {
+        String owner = user.getPublicKeyString();
+        BlockingQueue<ChameleonTuple> pool = tuplePools.get(owner);
+        if (pool == null || refillExecutor.isShutdown() || !refilling.add(owner)) {
+            return;
+        }
+        refillExecutor.execute(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted() && pool.remainingCapacity() > 0) {
+                    pool.offer(newTuple(user.getTrap()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("[Chameleon] 补充用户" + user.getName() + "的随机数元组失败", e);
+            } finally {
+                refilling.remove(owner);
+            }
+        });
+    }
+
+    /**
+     * 预先计算的随机数r、消息m以及对应的哈希点mP + rY
+     */
+    private static class ChameleonTuple {
+        private final Element r;
+
+        private final Element m;
+
+        private final Element hashPoint;
+
+        private ChameleonTuple(Element r, Element m, Element hashPoint) {
+            this.r = r;
+            this.m = m;
+            this.hashPoint = hashPoint;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.BlockTransaction;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.repository.BlockRepo;
+import com.latte.blockchain.repository.BlockTransactionRepo;
+import com.latte.blockchain.repository.TransactionRepo;
+import com.latte.blockchain.service.IBlockStoreService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 基于MySQL的区块存储，区块头保存在blocks表，区块中的交易顺序保存在block_transactions表
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@ConditionalOnProperty(name = "latte-chain.storage.block-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaBlockStoreServiceImpl implements IBlockStoreService {
+
+    /**
+     * 数据库区块DAO对象
+     */
+    @Autowired
+    private BlockRepo blockRepo;
+
+    /**
+     * 区块交易从属关系DAO
+     */
+    @Autowired
+    private BlockTransactionRepo blockTransactionRepo;
+
+    /**
+     * 交易DAO对象
+     */
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 区块及其从属关系均为新记录，直接persist以避免按主键先查询再合并，并参与调用方的事务
+     *
+     * @param block {@link Block}
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void save(Block block) {
+        entityManager.persist(block);
+        List<Transaction> transactions = block.getTransactions();
+        if (transactions == null) {
+            return;
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            entityManager.persist(new BlockTransaction(transactions.get(i).getId(), block.getId(), i));
+        }
+    }
+
+    @Override
+    public Block getBlock(long height) {
+        Block block = blockRepo.getBlockById(height);
+        if (block != null) {
+            fillTransactions(Collections.singletonList(block),
+                    blockTransactionRepo.findByBlockIdOrderByPositionAsc(height));
+        }
+        return block;
+    }
+
+    @Override
+    public Block getBlockByHash(String hash) {
+        Block block = blockRepo.getBlockByHash(hash);
+        if (block != null) {
+            fillTransactions(Collections.singletonList(block),
+                    blockTransactionRepo.findByBlockIdOrderByPositionAsc(block.getId()));
+        }
+        return block;
+    }
+
+    @Override
+    public Long getMaxHeight() {
+        return blockRepo.getMaxId();
+    }
+
+    @Override
+    public List<Block> getBlocks(long start, int limit) {
+        long end = start + limit - 1;
+        List<Block> blocks = blockRepo.findByIdBetweenOrderByIdAsc(start, end);
+        fillTransactions(blocks, blockTransactionRepo.findByBlockIdBetweenOrderByBlockIdAscPositionAsc(start, end));
+        return blocks;
+    }
+
+    @Override
+    public BlockTransaction getTransactionLocation(String transactionId) {
+        return blockTransactionRepo.findById(transactionId).orElse(null);
+    }
+
+    /**
+     * 一次查询加载所有区块的交易，并按从属关系中的顺序放回各区块
+     *
+     * @param blocks  区块
+     * @param members 按区块高度与位置排序的从属关系
+     */
+    private void fillTransactions(List<Block> blocks, List<BlockTransaction> members) {
+        Map<String, Transaction> transactions = transactionRepo.findAllById(members.stream()
+                .map(BlockTransaction::getTransactionId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        Map<Long, Block> blocksById = blocks.stream().collect(Collectors.toMap(Block::getId, Function.identity()));
+        for (Block block : blocks) {
+            block.setTransactions(new ArrayList<>());
+        }
+        for (BlockTransaction member : members) {
+            Block block = blocksById.get(member.getBlockId());
+            Transaction transaction = transactions.get(member.getTransactionId());
+            if (block != null && transaction != null) {
+                block.getTransactions().add(transaction);
+            }
+        }
+    }
+}
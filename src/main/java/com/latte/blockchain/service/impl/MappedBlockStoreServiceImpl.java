@@ -0,0 +1,161 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.BlockTransaction;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.service.IBlockStoreService;
+import com.latte.blockchain.utils.BinaryCodec;
+import com.latte.blockchain.utils.MappedAppendLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于内存映射段文件的区块存储：区块连同其交易以二进制格式追加写入，
+ * 内存中仅保留高度 -> 位置、哈希值 -> 高度以及交易ID -> 区块位置三个索引，启动时由段文件重建
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "latte-chain.storage.block-store", havingValue = "mapped")
+public class MappedBlockStoreServiceImpl implements IBlockStoreService {
+
+    private final MappedAppendLog blockLog;
+
+    /**
+     * 区块高度 -> 段文件中的位置
+     */
+    private final Map<Long, Long> heightIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 区块哈希值 -> 区块高度
+     */
+    private final Map<String, Long> hashIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 交易ID -> 所在区块高度及位置
+     */
+    private final Map<String, BlockTransaction> transactionIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 最大区块高度，链为空时为-1
+     */
+    private final AtomicLong maxHeight = new AtomicLong(-1);
+
+    /**
+     * @param directory 存储目录
+     */
+    public MappedBlockStoreServiceImpl(@Value("${latte-chain.storage.blocks:data/blocks}") String directory) {
+        try {
+            blockLog = new MappedAppendLog(Paths.get(directory), "blocks", LatteChainConfEnum.BLOCK_SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开区块存储" + directory, e);
+        }
+        blockLog.forEach((position, record) -> index(BinaryCodec.decodeBlock(ByteBuffer.wrap(record)), position));
+        log.info("[Block Store] 已加载" + heightIndex.size() + "个区块");
+    }
+
+    /**
+     * 追加区块并立即刷盘，同一高度重复保存时以最后一次为准。在事务中调用时推迟到事务提交之后执行，
+     * 回滚的区块不会写入段文件或出现在索引中
+     *
+     * @param block {@link Block}
+     */
+    @Override
+    public void save(Block block) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(block);
+                }
+            });
+        } else {
+            append(block);
+        }
+    }
+
+    private void append(Block block) {
+        long position;
+        try {
+            position = blockLog.append(BinaryCodec.toBytes(block));
+        } catch (IOException e) {
+            throw new UncheckedIOException("区块写入失败", e);
+        }
+        blockLog.force();
+        index(block, position);
+    }
+
+    @Override
+    public Block getBlock(long height) {
+        Long position = heightIndex.get(height);
+        return position == null ? null : BinaryCodec.decodeBlock(ByteBuffer.wrap(blockLog.read(position)));
+    }
+
+    @Override
+    public Block getBlockByHash(String hash) {
+        Long height = hashIndex.get(hash);
+        return height == null ? null : getBlock(height);
+    }
+
+    @Override
+    public Long getMaxHeight() {
+        long height = maxHeight.get();
+        return height < 0 ? null : height;
+    }
+
+    @Override
+    public List<Block> getBlocks(long start, int limit) {
+        List<Block> blocks = new ArrayList<>(Math.max(0, limit));
+        for (long height = start; height < start + limit; height++) {
+            Block block = getBlock(height);
+            if (block == null) {
+                break;
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    @Override
+    public BlockTransaction getTransactionLocation(String transactionId) {
+        return transactionIndex.get(transactionId);
+    }
+
+    @PreDestroy
+    public void close() {
+        blockLog.close();
+    }
+
+    private void index(Block block, long position) {
+        heightIndex.put(block.getId(), position);
+        if (block.getHash() != null) {
+            hashIndex.put(block.getHash(), block.getId());
+        }
+        List<Transaction> transactions = block.getTransactions();
+        if (transactions != null) {
+            for (int i = 0; i < transactions.size(); i++) {
+                String id = transactions.get(i).getId();
+                transactionIndex.put(id, new BlockTransaction(id, block.getId(), i));
+            }
+        }
+        maxHeight.accumulateAndGet(block.getId(), Math::max);
+    }
+}
@@ -0,0 +1,255 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.TransactionsPoolEntity;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.repository.TransactionPoolRepo;
+import com.latte.blockchain.service.IChainWalService;
+import com.latte.blockchain.service.IMempoolService;
+import com.latte.blockchain.utils.BinaryCodec;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 内存交易池，保存完整的交易对象并以二叉堆按单位字节手续费建立优先级索引，矿工获取交易时无需访问数据库。
+ * 被打包或移除的交易只从ID索引中删除，其堆中条目在到达堆顶时再被丢弃
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class MempoolServiceImpl implements IMempoolService {
+
+    /**
+     * 交易优先级：单位字节手续费越高越优先，相同时时间戳越早越优先
+     */
+    private static final Comparator<PoolEntry> PRIORITY = ((Comparator<PoolEntry>) PoolEntry::compareFeeRate)
+            .thenComparingLong(entry -> entry.transaction.getTimeStamp())
+            .thenComparing(entry -> entry.transaction.getId());
+
+    /**
+     * 交易池DAO对象
+     */
+    @Autowired
+    private TransactionPoolRepo transactionPoolRepo;
+
+    /**
+     * 链状态预写日志
+     */
+    @Autowired
+    private IChainWalService walService;
+
+    /**
+     * 按优先级排列的交易，读写时需持有lock
+     */
+    private final PriorityQueue<PoolEntry> heap = new PriorityQueue<>(PRIORITY);
+
+    /**
+     * 交易ID -> 池中条目
+     */
+    private final Map<String, PoolEntry> transactions = new ConcurrentHashMap<>();
+
+    /**
+     * 保护堆并让矿工等待交易
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * 从transaction_pool表恢复交易池，启动时没有链状态快照才由链服务调用
+     */
+    @Override
+    public void recover() {
+        for (TransactionsPoolEntity entity : transactionPoolRepo.findAll()) {
+            byte[] encoded = entity.getEncoded();
+            enqueue(BinaryCodec.decodeTransaction(ByteBuffer.wrap(encoded)), encoded.length);
+        }
+        log.info("[Mempool] 已恢复" + transactions.size() + "笔待打包交易");
+    }
+
+    /**
+     * 按链状态快照或预写日志重放得到的交易恢复内存交易池，不写入transaction_pool表与预写日志
+     *
+     * @param restored 解码得到的交易
+     */
+    @Override
+    public void restore(Collection<Transaction> restored) {
+        for (Transaction transaction : restored) {
+            enqueue(transaction, BinaryCodec.toBytes(transaction).length);
+        }
+        log.info("[Mempool] 已恢复" + transactions.size() + "笔待打包交易");
+    }
+
+    @Override
+    public List<Transaction> snapshot() {
+        List<Transaction> copy = new ArrayList<>(transactions.size());
+        transactions.values().forEach(entry -> copy.add(entry.transaction));
+        return copy;
+    }
+
+    /**
+     * 提交一笔交易到交易池并唤醒等待中的矿工
+     *
+     * @param transaction {@link Transaction} 已持久化的交易
+     * @return 交易编码后超过区块字节数上限、永远无法被打包时返回false
+     */
+    @Override
+    public boolean submit(Transaction transaction) {
+        byte[] encoded = BinaryCodec.toBytes(transaction);
+        if (encoded.length > LatteChainConfEnum.MAX_BLOCK_TRANSACTION_BYTES) {
+            log.warn("[Mempool] 交易" + transaction.getId() + "编码后为" + encoded.length + "字节，超过区块上限，拒绝进入交易池");
+            return false;
+        }
+        transactionPoolRepo.save(new TransactionsPoolEntity(transaction.getId(), transaction.getTimeStamp(), encoded));
+        // 先放入内存再追加日志，位于快照之前的交易池记录因此总已体现在快照中
+        enqueue(transaction, encoded.length);
+        try {
+            walService.logPoolAdd(encoded);
+        } catch (RuntimeException e) {
+            transactions.remove(transaction.getId());
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 等待交易池非空，并组装区块模板：依次弹出堆顶交易，能放入模板的加入模板，超出字节数上限的跳过，
+     * 结束后将弹出的有效条目放回堆中，耗时为O((k + 跳过数) log n)
+     *
+     * @param maxCount 最大交易数量
+     * @param maxBytes 交易编码后的最大总字节数
+     * @return {@link Transaction} 交易列表
+     * @throws InterruptedException 等待时被中断
+     */
+    @Override
+    public List<Transaction> awaitTemplate(int maxCount, int maxBytes) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                List<Transaction> template = new ArrayList<>(maxCount);
+                List<PoolEntry> polled = new ArrayList<>();
+                int bytes = 0;
+                int skipped = 0;
+                while (template.size() < maxCount && skipped < LatteChainConfEnum.BLOCK_TEMPLATE_MAX_SKIPS
+                        && !heap.isEmpty()) {
+                    PoolEntry entry = heap.poll();
+                    if (transactions.get(entry.transaction.getId()) != entry) {
+                        // 交易已被打包或移除
+                        continue;
+                    }
+                    polled.add(entry);
+                    if (bytes + entry.size > maxBytes) {
+                        skipped++;
+                        continue;
+                    }
+                    bytes += entry.size;
+                    template.add(entry.transaction);
+                }
+                heap.addAll(polled);
+                if (!template.isEmpty()) {
+                    return template;
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return transactions.containsKey(id);
+    }
+
+    @Override
+    public void remove(String id) {
+        // 先移出内存再追加日志，原因同submit
+        if (transactions.remove(id) == null) {
+            return;
+        }
+        walService.logPoolRemove(id);
+        transactionPoolRepo.deleteById(id);
+    }
+
+    @Override
+    public void evict(Collection<String> ids) {
+        for (String id : ids) {
+            transactions.remove(id);
+        }
+    }
+
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    /**
+     * 将交易加入交易池并唤醒等待中的矿工
+     *
+     * @param transaction {@link Transaction}
+     * @param size        交易二进制编码的字节数
+     */
+    private void enqueue(Transaction transaction, int size) {
+        PoolEntry entry = new PoolEntry(transaction, size);
+        if (transactions.putIfAbsent(transaction.getId(), entry) != null) {
+            return;
+        }
+        lock.lock();
+        try {
+            heap.add(entry);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 交易池中的一笔交易及其编码后的字节数
+     */
+    private static class PoolEntry {
+
+        /**
+         * 与任意int字节数相乘都不会溢出long的手续费上限
+         */
+        private static final long EXACT_FEE_LIMIT = Long.MAX_VALUE / Integer.MAX_VALUE;
+
+        private final Transaction transaction;
+
+        private final int size;
+
+        private PoolEntry(Transaction transaction, int size) {
+            this.transaction = transaction;
+            this.size = size;
+        }
+
+        /**
+         * 比较单位字节手续费，交叉相乘以避免浮点除法，费率高者排在前面。
+         * 手续费不超过{@link #EXACT_FEE_LIMIT}时乘积不会溢出long，否则改用BigInteger计算
+         */
+        private int compareFeeRate(PoolEntry other) {
+            long fee = transaction.getFee();
+            long otherFee = other.transaction.getFee();
+            if (fee <= EXACT_FEE_LIMIT && otherFee <= EXACT_FEE_LIMIT) {
+                return Long.compare(otherFee * size, fee * other.size);
+            }
+            return BigInteger.valueOf(otherFee).multiply(BigInteger.valueOf(size))
+                    .compareTo(BigInteger.valueOf(fee).multiply(BigInteger.valueOf(other.size)));
+        }
+    }
+}
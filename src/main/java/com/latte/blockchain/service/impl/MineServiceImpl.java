@@ -1,22 +1,17 @@
 package com.latte.blockchain.service.impl;
 
-import com.latte.blockchain.repository.BlockRepo;
-import com.latte.blockchain.repository.TransactionRepo;
-import com.latte.blockchain.repository.TransactionPoolRepo;
-import com.latte.blockchain.repository.UtxoRepo;
 import com.latte.blockchain.entity.*;
 import com.latte.blockchain.service.*;
 import com.latte.blockchain.utils.LatteChain;
 import com.latte.blockchain.utils.BeanContext;
+import com.latte.blockchain.utils.BlockHeaderHasher;
 import com.latte.blockchain.enums.LatteChainConfEnum;
-import com.latte.blockchain.utils.CryptoUtil;
-import com.latte.blockchain.utils.LockUtil;
+import com.latte.blockchain.utils.ChainTipHolder;
 
 import java.security.PublicKey;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -49,24 +44,39 @@ public class MineServiceImpl implements IMineService {
     private IChameleonService chameleonService;
 
     /**
-     * 数据库区块DAO对象
+     * nonce搜索服务
      */
-    private BlockRepo blockDao;
+    private INonceSearchService nonceSearchService;
 
     /**
-     * 交易DAO对象
+     * 区块提交服务
      */
-    private TransactionRepo transactionDao;
+    private IBlockCommitService blockCommitService;
 
     /**
-     * 交易池DAO对象
+     * 交易池
      */
-    private TransactionPoolRepo transactionPoolDao;
+    private IMempoolService mempoolService;
 
     /**
-     * 全局UTXO DAO对象
+     * 区块哈希值需满足的前导零比特数
      */
-    private UtxoRepo utxoDao;
+    private final int difficulty;
+
+    public MineServiceImpl() {
+        this.difficulty = LatteChainConfEnum.DIFFICULTY_BITS;
+    }
+
+    /**
+     * 脱离Spring容器使用(如基准测试)时直接指定nonce搜索服务与难度
+     *
+     * @param nonceSearchService nonce搜索服务
+     * @param difficulty         前导零比特数
+     */
+    public MineServiceImpl(INonceSearchService nonceSearchService, int difficulty) {
+        this.nonceSearchService = nonceSearchService;
+        this.difficulty = difficulty;
+    }
 
 
     /**
@@ -76,55 +86,64 @@ public class MineServiceImpl implements IMineService {
     public void run() {
         transactionService = BeanContext.getApplicationContext().getBean(TransactionServiceImpl.class);
         userService = BeanContext.getApplicationContext().getBean(UserServiceImpl.class);
-        blockDao = BeanContext.getApplicationContext().getBean(BlockRepo.class);
-        transactionDao = BeanContext.getApplicationContext().getBean(TransactionRepo.class);
-        transactionPoolDao = BeanContext.getApplicationContext().getBean(TransactionPoolRepo.class);
-        utxoDao = BeanContext.getApplicationContext().getBean(UtxoRepo.class);
+        blockCommitService = BeanContext.getApplicationContext().getBean(IBlockCommitService.class);
+        mempoolService = BeanContext.getApplicationContext().getBean(MempoolServiceImpl.class);
         chameleonService = BeanContext.getApplicationContext().getBean(ChameleonServiceImpl.class);
+        nonceSearchService = BeanContext.getApplicationContext().getBean(NonceSearchServiceImpl.class);
 
-        ReentrantLock stateLock = LockUtil.getLockUtil().getStateLock();
-        Condition condition = LockUtil.getLockUtil().getWriteCondition();
+        ChainTipHolder chainTip = latteChain.getChainTip();
 
         while (true) {
-            stateLock.lock();
             try {
-                if (transactionPoolDao.getPoolSize() == 0) {
-                    condition.await();
-                } else {
-                    // 并行读取当前链的高度信息、前一区块的哈希值信息、当前交易池中的交易信息
-                    long currentHeight = blockDao.getHeight();
-                    String preHash = blockDao.getBlockById(currentHeight - 1).getHash();
-                    List<TransactionsPoolEntity> transactions = transactionPoolDao.getTransactions();
-                    List<Transaction> works = new ArrayList<>(LatteChainConfEnum.MAX_TRANSACTION_AMOUNT);
-                    for (TransactionsPoolEntity entity : transactions) {
-                        works.add(transactionDao.getTransactionById(entity.getTransactionIndex()));
-                    }
-                    // 构造区块
-                    Block newBlock = new Block(preHash, Thread.currentThread().getName());
-                    newBlock.setId(currentHeight);
+                // 等待交易池中出现待打包的交易，按单位字节手续费从高到低选取
+                List<Transaction> works = mempoolService.awaitTemplate(LatteChainConfEnum.MAX_TRANSACTION_AMOUNT,
+                        LatteChainConfEnum.MAX_BLOCK_TRANSACTION_BYTES);
+                // 读取当前链顶，组装与计算区块的过程均不持有任何全局锁
+                ChainTip parent = chainTip.get();
+                // 构造区块
+                Block newBlock = new Block(parent.getHash(), Thread.currentThread().getName());
+                newBlock.setId(parent.getHeight());
 
-                    // 将所有从交易池中获取的交易信息都添加到当前新构造的区块中
-                    if (!addTransaction(newBlock, works)) {
-                        // 交易信息无效(签名信息错误、不满足最低金额、交易已被计算)
-                        // 挖矿失败，重新获取交易并创建、挖掘区块
-                        continue;
-                    }
+                // 将所有从交易池中获取的交易信息都添加到当前新构造的区块中
+                if (!addTransaction(newBlock, works)) {
+                    // 交易信息无效(签名信息错误、不满足最低金额、交易已被计算)
+                    // 挖矿失败，重新获取交易并创建、挖掘区块
+                    continue;
+                }
 
-                    // 计算新区块的哈希值
-                    mineNewBlock(newBlock);
-                    // 提交新的区块并获取奖励
-                    addBlock(newBlock);
-                    // 将当前交易记在系统全局UTXO中并从池中删除已经消耗的交易
-                    for (Transaction transaction : works) {
-                        // 将交易输出添加到全局
-                        addToGlobalUtxo(transaction);
-                        transactionPoolDao.deleteById(transaction.getId());
-                    }
+                // 计算新区块的哈希值，链顶被其他矿工推进时放弃当前区块
+                if (!mineNewBlock(newBlock, parent) || !commitBlock(newBlock, parent)) {
+                    log.debug("[Stale Block] " + Thread.currentThread().getName() + " 链顶已变化，放弃区块#" +
+                            newBlock.getId());
                 }
             } catch (InterruptedException e) {
                 e.printStackTrace();
-            } finally {
-                stateLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 通过对链顶的CAS提交区块，提交期间其他矿工仍可组装和计算区块
+     *
+     * @param block  已计算哈希值的区块
+     * @param parent 组装区块时读取的链顶
+     * @return 提交成功则返回true，链顶已被推进则返回false
+     */
+    private boolean commitBlock(Block block, ChainTip parent) {
+        ChainTipHolder chainTip = latteChain.getChainTip();
+        if (!chainTip.tryClaim(parent)) {
+            return false;
+        }
+        boolean committed = false;
+        try {
+            // 区块中的交易均基于parent验证，持有提交权期间全局状态不会被其他矿工修改
+            // 提交新的区块并获取奖励，同时发布新的链顶
+            addBlock(block);
+            committed = true;
+            return true;
+        } finally {
+            if (!committed) {
+                chainTip.publish(parent);
             }
         }
     }
@@ -142,27 +161,27 @@ public class MineServiceImpl implements IMineService {
         }
         userService = BeanContext.getApplicationContext().getBean(UserServiceImpl.class);
         transactionService = BeanContext.getApplicationContext().getBean(TransactionServiceImpl.class);
-        transactionDao = BeanContext.getApplicationContext().getBean(TransactionRepo.class);
-        utxoDao = BeanContext.getApplicationContext().getBean(UtxoRepo.class);
         chameleonService = BeanContext.getApplicationContext().getBean(ChameleonServiceImpl.class);
+        nonceSearchService = BeanContext.getApplicationContext().getBean(NonceSearchServiceImpl.class);
 
         // 初始化系统预置用户信息
         userService.initUser();
-        PublicKey coinbasePublicKey = userService.getUserPublicKey("admin");
         // 初始化变色龙哈希服务
         chameleonService.setup();
         // 设置每一个用户的变色龙哈希密钥
         for (Wallet user : latteChain.getUsers().values()) {
             chameleonService.setUserSecret(user);
         }
-        // 初始块奖励
-        Utxo output = new Utxo(coinbasePublicKey, LatteChainConfEnum.BLOCK_SUBSIDY);
-        utxoDao.save(output);
-        Block genesisBlock = new Block("0",
-                "The Times 03/Jan/2009 Chancellor on brink of second bailout for banks");
-        this.mineNewBlock(genesisBlock);
-        // 将创世块添加到区块链上
-        this.addBlock(genesisBlock);
+        if (latteChain.getChainTip().peek() == null) {
+            Block genesisBlock = new Block("0",
+                    "The Times 03/Jan/2009 Chancellor on brink of second bailout for banks");
+            this.mineNewBlock(genesisBlock);
+            // 将创世块添加到区块链上
+            this.addBlock(genesisBlock);
+        } else {
+            // 启动时已恢复出链顶，矿工直接从恢复的链顶继续出块
+            log.info("[Initiation] 已存在区块链，从高度" + latteChain.getChainTip().peek().getHeight() + "继续挖矿");
+        }
         // 开启所有用户的挖矿线程
         for (Wallet user : latteChain.getUsers().values()) {
             user.getWorkerThread().start();
@@ -171,17 +190,6 @@ public class MineServiceImpl implements IMineService {
         return true;
     }
 
-    /**
-     * 将交易输出添加到全局UTXO
-     *
-     * @param transaction 交易
-     */
-    public void addToGlobalUtxo(Transaction transaction) {
-        for (Utxo output : transaction.getOutputUtxos()) {
-            utxoDao.save(output);
-        }
-    }
-
     /**
      * 检查并添加新的区块到区块链中
      *
@@ -189,62 +197,124 @@ public class MineServiceImpl implements IMineService {
      */
     @Override
     public void addBlock(Block blockToAdd) {
-        blockDao = BeanContext.getApplicationContext().getBean(BlockRepo.class);
+        blockCommitService = BeanContext.getApplicationContext().getBean(IBlockCommitService.class);
         if (blockToAdd.getPreviousHash().equals(LatteChainConfEnum.ZERO_HASH)) {
-            // 当前待添加块为创世块
+            // 当前待添加块为创世块，初始块奖励发放给管理员
             blockToAdd.setId(0);
-            // 添加到数据库中
-            blockDao.save(blockToAdd);
+            Utxo coinbase = new Utxo(userService.getUserPublicKey("admin"), LatteChainConfEnum.BLOCK_SUBSIDY);
+            blockCommitService.commit(blockToAdd, coinbase);
             log.info("[Initiation] 创世块已创建！LatteChain实例初始化成功");
         } else {
-            blockDao.save(blockToAdd);
+            // 区块、交易输入输出、矿工奖励与交易池清理在同一事务中写入
+            blockCommitService.commit(blockToAdd, rewardMiner(blockToAdd.getMsg(), blockToAdd));
             log.info("[Issued Block] " + Thread.currentThread().getName() + " Mined ☺ : " + blockToAdd.getHash());
-            // 奖励矿工
-            rewardMiner(blockToAdd.getMsg(), blockToAdd);
         }
+        if (extendsTip(blockToAdd)) {
+            latteChain.getChainTip().publish(
+                    new ChainTip(blockToAdd.getId() + 1, blockToAdd.getHash(), blockToAdd.getTimeStamp()));
+        }
+    }
+
+    /**
+     * 区块是否紧接当前链顶：创世块只能发布到空链上，其余区块的高度与前一区块哈希须与链顶一致，
+     * 避免覆盖启动时恢复的链顶
+     *
+     * @param block 已提交的区块
+     * @return 可以作为新链顶发布则返回true
+     */
+    private boolean extendsTip(Block block) {
+        ChainTip current = latteChain.getChainTip().peek();
+        if (current == null) {
+            return block.getId() == 0;
+        }
+        return current.getHeight() == block.getId() && current.getHash().equals(block.getPreviousHash());
     }
 
     /**
-     * 发放奖励给旷工
+     * 生成矿工奖励：出块奖励、按交易数量计的补贴与区块内所有交易的手续费，奖励随区块一同提交
      *
      * @param address 矿工账户
      * @param block   区块
+     * @return 奖励UTXO
      */
     @Override
-    public void rewardMiner(String address, Block block) {
-        float rewardValue = LatteChainConfEnum.BLOCK_SUBSIDY +
+    public Utxo rewardMiner(String address, Block block) {
+        long rewardValue = LatteChainConfEnum.BLOCK_SUBSIDY +
                 LatteChainConfEnum.TRANSACTION_SUBSIDY * block.getTransactions().size();
+        for (Transaction transaction : block.getTransactions()) {
+            rewardValue = Math.addExact(rewardValue, transaction.getFee());
+        }
         PublicKey account = userService.getUserPublicKey(address);
-        Utxo reward = new Utxo(account, rewardValue);
-        utxoDao.save(reward);
+        return new Utxo(account, rewardValue);
     }
 
     /**
-     * 执行交易并添加到区块中
+     * 检查交易并添加到区块中，交易在区块提交时才被执行
      *
      * @param block        区块
      * @param transactions 交易信息
      */
     @Override
     public boolean addTransaction(Block block, List<Transaction> transactions) {
+        boolean isGenesis = block.getPreviousHash().equals(LatteChainConfEnum.ZERO_HASH);
+        if (!isGenesis && !verifyTransactions(transactions)) {
+            return false;
+        }
+        // 区块内已被消耗的输入 -> 消耗它的交易ID
+        Map<String, String> spentInputs = new HashMap<>();
         for (Transaction transaction : transactions) {
-            if (!block.getPreviousHash().equals(LatteChainConfEnum.ZERO_HASH)) {
+            if (!isGenesis) {
                 // 非初始块
-                if (!transactionPoolDao.existsById(transaction.getId())) {
+                if (!mempoolService.contains(transaction.getId())) {
                     // 当前交易已被消耗
                     return false;
                 }
-                if (!transactionService.processTransaction(transaction)) {
-                    // 交易不合法或当前交易已经被消耗
+                // 仅检查交易输入，交易在区块提交时才被执行
+                if (!transactionService.validateTransaction(transaction)) {
+                    // 交易输入已经被消耗，该交易永远无法被打包，将其移出交易池
+                    log.warn("交易" + transaction.getId() + "无效，已从交易池中移除");
+                    mempoolService.remove(transaction.getId());
                     return false;
                 }
+                for (String input : transaction.getInputUtxosId()) {
+                    String conflicting = spentInputs.get(input);
+                    if (conflicting != null) {
+                        // 与区块内先选取的交易双花，先选取的交易被打包后该交易同样无法被打包
+                        log.warn("交易" + transaction.getId() + "与交易" + conflicting + "双花输入" + input +
+                                "，已从交易池中移除");
+                        mempoolService.remove(transaction.getId());
+                        return false;
+                    }
+                }
+                for (String input : transaction.getInputUtxosId()) {
+                    spentInputs.put(input, transaction.getId());
+                }
             }
             // 将交易添加至区块中
-            block.getTransactions().add(transaction);
+            block.addTransaction(transaction);
         }
         return true;
     }
 
+    /**
+     * 在组装区块前并行验证所有候选交易的签名，并将签名无效的交易移出交易池
+     *
+     * @param transactions 候选交易
+     * @return 所有交易签名均合法则返回true
+     */
+    private boolean verifyTransactions(List<Transaction> transactions) {
+        Map<String, Boolean> verdicts = transactionService.verifySignatures(transactions);
+        boolean allValid = true;
+        for (Transaction transaction : transactions) {
+            if (!verdicts.get(transaction.getId())) {
+                log.warn("交易" + transaction.getId() + "签名信息异常！请审计该交易！");
+                mempoolService.remove(transaction.getId());
+                allValid = false;
+            }
+        }
+        return allValid;
+    }
+
     /**
      * 计算新的区块哈希值并计算默克根
      *
@@ -252,14 +322,23 @@ public class MineServiceImpl implements IMineService {
      */
     @Override
     public void mineNewBlock(Block block) {
-        String difficultyString = LatteChainConfEnum.TARGET_HASH;
-        block.setMerkleRoot(CryptoUtil.calculateMerkleRoot((ArrayList<Transaction>) block.getTransactions()));
-        String hash = this.calculateBlockHash(block);
-        while (!hash.substring(0, LatteChainConfEnum.DIFFICULTY).equals(difficultyString)) {
-            block.setNonce(block.getNonce() + 1);
-            hash = this.calculateBlockHash(block);
-        }
-        block.setHash(hash);
+        block.setMerkleRoot(block.getMerkleTree().getRootHex());
+        // 由nonce搜索服务并行计算满足难度要求的哈希值
+        nonceSearchService.search(block, difficulty);
+    }
+
+    /**
+     * 计算新的区块哈希值并计算默克根，链顶不再是parent时提前放弃
+     *
+     * @param block  区块
+     * @param parent 组装区块时读取的链顶
+     * @return 计算完成则返回true，被放弃则返回false
+     */
+    private boolean mineNewBlock(Block block, ChainTip parent) {
+        ChainTipHolder chainTip = latteChain.getChainTip();
+        block.setMerkleRoot(block.getMerkleTree().getRootHex());
+        return nonceSearchService.search(block, difficulty,
+                () -> !chainTip.isCurrent(parent));
     }
 
     /**
@@ -270,11 +349,6 @@ public class MineServiceImpl implements IMineService {
      */
     @Override
     public String calculateBlockHash(Block block) {
-        return CryptoUtil.applySm3Hash(
-                block.getId() +
-                        block.getPreviousHash() +
-                        block.getTimeStamp() +
-                        block.getMerkleRoot() +
-                        block.getNonce());
+        return new BlockHeaderHasher(block).hashHex(block.getNonce());
     }
 }
@@ -0,0 +1,181 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.service.INonceSearchService;
+import com.latte.blockchain.utils.BlockHeaderHasher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 并行nonce搜索服务，将nonce空间按工作线程数交错划分，任一线程找到结果后其余线程协作退出。
+ * 各矿工线程共享同一个线程池，每次搜索按当前并发的搜索数量均分工作线程，避免多个搜索的任务在池中排队争抢
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class NonceSearchServiceImpl implements INonceSearchService {
+
+    /**
+     * 未找到nonce时的标记值
+     */
+    private static final long NOT_FOUND = -1;
+
+    /**
+     * 搜索被取消时的标记值
+     */
+    private static final long CANCELLED = -2;
+
+    /**
+     * 工作线程检查取消条件的间隔(nonce个数)
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 1 << 12;
+
+    /**
+     * 工作线程数量
+     */
+    private final int workers;
+
+    /**
+     * 搜索线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 正在进行的搜索数量
+     */
+    private final AtomicInteger activeSearches = new AtomicInteger();
+
+    public NonceSearchServiceImpl() {
+        this(LatteChainConfEnum.MINE_WORKER_AMOUNT);
+    }
+
+    /**
+     * @param workers 工作线程数量
+     */
+    public NonceSearchServiceImpl(int workers) {
+        this.workers = Math.max(1, workers);
+        this.pool = new ForkJoinPool(this.workers);
+    }
+
+    /**
+     * 为区块搜索满足难度要求的nonce值，找到后写入区块的nonce与hash
+     *
+     * @param block      {@link Block} 待计算区块，merkle根需已确定
+     * @param difficulty 难度值，即哈希值前导0比特数
+     */
+    @Override
+    public void search(Block block, int difficulty) {
+        search(block, difficulty, () -> false);
+    }
+
+    /**
+     * 为区块搜索满足难度要求的nonce值，cancelled返回true时所有工作线程尽快退出
+     *
+     * @param block      {@link Block} 待计算区块，merkle根需已确定
+     * @param difficulty 难度值，即哈希值前导0比特数
+     * @param cancelled  取消条件，由工作线程周期性检查
+     * @return 找到nonce则返回true，被取消则返回false
+     */
+    @Override
+    public boolean search(Block block, int difficulty, BooleanSupplier cancelled) {
+        AtomicLong found = new AtomicLong(NOT_FOUND);
+        int strides = Math.max(1, workers / activeSearches.incrementAndGet());
+        // 每个工作线程只累加自己的下标，join之后对当前线程可见
+        long[] hashes = new long[strides];
+        long[] nanos = new long[strides];
+        try {
+            while (!searchAll(block, difficulty, cancelled, found, strides, hashes, nanos)) {
+                // nonce空间已耗尽，更新时间戳后重新搜索
+                block.setTimeStamp(System.currentTimeMillis());
+            }
+        } finally {
+            activeSearches.decrementAndGet();
+        }
+        if (log.isDebugEnabled()) {
+            double rate = 0;
+            for (int i = 0; i < strides; i++) {
+                rate += nanos[i] == 0 ? 0 : hashes[i] * 1e9 / nanos[i];
+            }
+            log.debug("[Nonce Search] " + Thread.currentThread().getName() + " " + strides + "个工作线程，算力: " +
+                    (long) rate + " hashes/s");
+        }
+        if (found.get() == CANCELLED) {
+            return false;
+        }
+        block.setNonce((int) found.get());
+        block.setHash(new BlockHeaderHasher(block).hashHex(block.getNonce()));
+        return true;
+    }
+
+    /**
+     * 将搜索任务分发给所有工作线程并等待结束
+     *
+     * @param block      待计算区块
+     * @param difficulty 难度值
+     * @param cancelled  取消条件
+     * @param found      共享的搜索结果
+     * @param strides    本次搜索使用的工作线程数量
+     * @param hashes     各工作线程累计计算的哈希次数
+     * @param nanos      各工作线程累计的搜索耗时
+     * @return 找到满足难度要求的nonce或被取消则返回true
+     */
+    private boolean searchAll(Block block, int difficulty, BooleanSupplier cancelled, AtomicLong found,
+                              int strides, long[] hashes, long[] nanos) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(strides);
+        for (int i = 0; i < strides; i++) {
+            final int index = i;
+            tasks.add(pool.submit(() -> searchStride(index, strides, block, difficulty, cancelled, found,
+                    hashes, nanos)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return found.get() != NOT_FOUND;
+    }
+
+    /**
+     * 单个工作线程的搜索任务，检查 index, index + strides, index + 2 * strides ... 处的nonce
+     *
+     * @param index      工作线程编号
+     * @param strides    本次搜索使用的工作线程数量
+     * @param block      待计算区块
+     * @param difficulty 难度值
+     * @param cancelled  取消条件
+     * @param found      共享的搜索结果，非NOT_FOUND时所有线程退出
+     * @param hashes     各工作线程累计计算的哈希次数，累加到下标index处
+     * @param nanos      各工作线程累计的搜索耗时，累加到下标index处
+     */
+    private void searchStride(int index, int strides, Block block, int difficulty, BooleanSupplier cancelled,
+                              AtomicLong found, long[] hashes, long[] nanos) {
+        BlockHeaderHasher hasher = new BlockHeaderHasher(block);
+        byte[] digest = new byte[BlockHeaderHasher.HASH_LENGTH];
+        long startTime = System.nanoTime();
+        long count = 0;
+        for (long nonce = index; nonce <= Integer.MAX_VALUE && found.get() == NOT_FOUND; nonce += strides) {
+            if (++count % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                found.compareAndSet(NOT_FOUND, CANCELLED);
+                break;
+            }
+            hasher.hash((int) nonce, digest);
+            if (BlockHeaderHasher.leadingZeroBits(digest) >= difficulty) {
+                found.compareAndSet(NOT_FOUND, nonce);
+                break;
+            }
+        }
+        // nonce空间耗尽后重新搜索时累加，而不是覆盖上一轮的统计
+        hashes[index] += count;
+        nanos[index] += System.nanoTime() - startTime;
+    }
+}
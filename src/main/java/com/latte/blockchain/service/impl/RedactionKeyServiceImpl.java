@@ -0,0 +1,262 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.service.IRedactionKeyService;
+import com.latte.blockchain.utils.MappedAppendLog;
+import com.latte.blockchain.utils.MappedHashIndex;
+import it.unisa.dia.gas.jpbc.Element;
+import it.unisa.dia.gas.jpbc.Field;
+import it.unisa.dia.gas.plaf.jpbc.pairing.PairingFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 修改密钥存储：密钥序列化后追加到内存映射日志中，哈希值到日志位置的索引保存在内存映射的哈希索引文件中，
+ * 堆内只保留最近使用的密钥，进程重启后只需重放索引刷盘位置之后的日志。
+ * k只能配合生成它的陷门使用，而陷门随预置账户在每次启动时重新生成，此前运行中保存的k不能再用于修改交易。
+ * 刷盘采用组提交：同一时刻只有一个写入者执行刷盘并按日志顺序将已落盘的记录写入索引，其余写入者等待
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class RedactionKeyServiceImpl implements IRedactionKeyService {
+
+    private final Field zr = PairingFactory.getPairing(LatteChainConfEnum.PAIRING_PARAMETERS).getZr();
+
+    /**
+     * 记录格式为[short 哈希长度][哈希值][k]
+     */
+    private final MappedAppendLog keyLog;
+
+    /**
+     * 交易哈希值指纹 -> 日志位置
+     */
+    private final MappedHashIndex index;
+
+    /**
+     * 自上次索引刷盘以来写入的记录数，只由刷盘的写入者读写
+     */
+    private int uncheckpointed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition flushed = lock.newCondition();
+
+    /**
+     * 已追加但尚未写入索引的记录，按日志顺序排列
+     */
+    private final List<PendingKey> pending = new ArrayList<>();
+
+    /**
+     * 已追加的记录数量
+     */
+    private long appended;
+
+    /**
+     * 已刷盘并写入索引的记录数量
+     */
+    private long durable;
+
+    /**
+     * 是否有写入者正在刷盘
+     */
+    private boolean flushing;
+
+    /**
+     * 最近使用的修改密钥
+     */
+    private final Map<String, Element> hotKeys = Collections.synchronizedMap(
+            new LinkedHashMap<String, Element>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Element> eldest) {
+                    return size() > LatteChainConfEnum.REDACTION_KEY_CACHE_CAPACITY;
+                }
+            });
+
+    /**
+     * @param directory 存储目录
+     */
+    public RedactionKeyServiceImpl(
+            @Value("${latte-chain.storage.redaction-keys:data/redaction-keys}") String directory) {
+        try {
+            keyLog = new MappedAppendLog(Paths.get(directory), "keys",
+                    LatteChainConfEnum.REDACTION_KEY_SEGMENT_SIZE);
+            index = new MappedHashIndex(Paths.get(directory, "keys.idx"),
+                    LatteChainConfEnum.REDACTION_KEY_INDEX_CAPACITY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开修改密钥存储" + directory, e);
+        }
+        // 索引文件只缺少最后一次刷盘之后写入的记录
+        int[] replayed = new int[1];
+        keyLog.forEach(index.getIndexedPosition(), (position, record) -> {
+            indexRecord(readHash(ByteBuffer.wrap(record)), position);
+            replayed[0]++;
+        });
+        if (replayed[0] > 0) {
+            index.checkpoint();
+        }
+        log.info("[Redaction Key] 已加载" + index.size() + "条修改密钥索引，重放" + replayed[0] + "条记录");
+    }
+
+    @Override
+    public void put(String hash, Element k) {
+        byte[] hashBytes = hash.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = k.toBytes();
+        ByteBuffer record = ByteBuffer.allocate(Short.BYTES + hashBytes.length + keyBytes.length);
+        record.putShort((short) hashBytes.length).put(hashBytes).put(keyBytes);
+        long sequence;
+        lock.lock();
+        try {
+            pending.add(new PendingKey(hash, keyLog.append(record.array())));
+            sequence = ++appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException("修改密钥写入失败", e);
+        } finally {
+            lock.unlock();
+        }
+        // 密钥丢失后交易将无法再被修改，须等待落盘后再返回
+        awaitDurable(sequence);
+        hotKeys.put(hash, k.getImmutable());
+    }
+
+    @Override
+    public Element get(String hash) {
+        Element k = hotKeys.get(hash);
+        if (k != null) {
+            return k;
+        }
+        long position = index.find(fingerprint(hash), candidate -> isRecordOf(candidate, hash));
+        if (position < 0) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.wrap(keyLog.read(position));
+        readHash(record);
+        k = zr.newElementFromBytes(record.array(), record.position()).getImmutable();
+        hotKeys.put(hash, k);
+        return k;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        keyLog.close();
+        index.close();
+    }
+
+    /**
+     * 等待第sequence条记录刷盘，没有写入者在刷盘时由当前线程负责刷盘，并按日志顺序将此前追加的记录写入索引，
+     * 保证索引刷盘位置之前的记录均已落盘且已写入索引
+     *
+     * @param sequence 记录序号
+     */
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                long target = appended;
+                List<PendingKey> batch = new ArrayList<>(pending);
+                pending.clear();
+                boolean indexed = false;
+                lock.unlock();
+                try {
+                    keyLog.force();
+                    for (PendingKey key : batch) {
+                        indexRecord(key.hash, key.position);
+                    }
+                    uncheckpointed += batch.size();
+                    if (uncheckpointed >= LatteChainConfEnum.REDACTION_KEY_INDEX_CHECKPOINT_INTERVAL) {
+                        uncheckpointed = 0;
+                        index.checkpoint();
+                    }
+                    indexed = true;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    if (indexed) {
+                        durable = Math.max(durable, target);
+                    } else {
+                        // 由下一个刷盘的写入者重试
+                        pending.addAll(0, batch);
+                    }
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void indexRecord(String hash, long position) {
+        try {
+            index.put(fingerprint(hash), position, candidate -> isRecordOf(candidate, hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException("修改密钥索引扩容失败", e);
+        }
+    }
+
+    /**
+     * 指纹可能冲突，需以日志记录中的哈希值为准
+     */
+    private boolean isRecordOf(long position, String hash) {
+        return hash.equals(readHash(ByteBuffer.wrap(keyLog.read(position))));
+    }
+
+    /**
+     * 哈希值的64位FNV-1a指纹
+     */
+    private static long fingerprint(String hash) {
+        long fingerprint = 0xCBF29CE484222325L;
+        for (byte b : hash.getBytes(StandardCharsets.UTF_8)) {
+            fingerprint ^= b & 0xFF;
+            fingerprint *= 0x100000001B3L;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 已追加但尚未写入索引的一条记录
+     */
+    private static class PendingKey {
+
+        private final String hash;
+
+        private final long position;
+
+        private PendingKey(String hash, long position) {
+            this.hash = hash;
+            this.position = position;
+        }
+    }
+
+    private static String readHash(ByteBuffer record) {
+        byte[] hashBytes = new byte[record.getShort()];
+        record.get(hashBytes);
+        return new String(hashBytes, StandardCharsets.UTF_8);
+    }
+}
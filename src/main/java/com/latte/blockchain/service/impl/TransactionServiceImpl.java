@@ -1,27 +1,38 @@
 package com.latte.blockchain.service.impl;
 
 import com.latte.blockchain.repository.TransactionRepo;
-import com.latte.blockchain.repository.TransactionPoolRepo;
-import com.latte.blockchain.repository.UtxoRepo;
 import com.latte.blockchain.entity.*;
+import com.latte.blockchain.enums.LatteChainConfEnum;
+import com.latte.blockchain.enums.RedactionStatus;
+import com.latte.blockchain.service.IAddressHistoryService;
 import com.latte.blockchain.service.IChameleonService;
+import com.latte.blockchain.service.IMempoolService;
+import com.latte.blockchain.service.IRedactionKeyService;
 import com.latte.blockchain.service.ITransactionService;
+import com.latte.blockchain.service.IUtxoService;
 import com.latte.blockchain.service.IWalletService;
+import com.latte.blockchain.utils.AmountUtil;
 import com.latte.blockchain.utils.CryptoUtil;
 
 import com.latte.blockchain.utils.JsonUtil;
 import com.latte.blockchain.utils.LatteChain;
-import com.latte.blockchain.utils.LockUtil;
+import com.latte.blockchain.utils.StripedLruCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashSet;
-
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * @author float311
@@ -39,6 +50,9 @@ public class TransactionServiceImpl implements ITransactionService {
     @Autowired
     private IChameleonService chameleonService;
 
+    @Autowired
+    private IRedactionKeyService redactionKeyService;
+
     /**
      * 交易DAO对象
      */
@@ -46,16 +60,34 @@ public class TransactionServiceImpl implements ITransactionService {
     private TransactionRepo transactionRepo;
 
     /**
-     * 交易池DAO对象
+     * 用于批量写入修改后的交易信息
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 交易池
      */
     @Autowired
-    private TransactionPoolRepo transactionPoolRepo;
+    private IMempoolService mempoolService;
 
     /**
-     * UTXO DAO对象
+     * 账户交易历史索引
      */
     @Autowired
-    private UtxoRepo utxoRepo;
+    private IAddressHistoryService addressHistoryService;
+
+    /**
+     * 全局UTXO集合
+     */
+    @Autowired
+    private IUtxoService utxoService;
+
+    /**
+     * 验签结果缓存：交易ID -> 验证结果，分段加锁，并行验签时不同交易的访问互不阻塞
+     */
+    private final StripedLruCache<String, SignatureVerdict> signatureCache =
+            new StripedLruCache<>(LatteChainConfEnum.SIGNATURE_CACHE_CAPACITY);
 
     /**
      * 发起一笔交易
@@ -63,28 +95,25 @@ public class TransactionServiceImpl implements ITransactionService {
      * @param sender    交易发起方
      * @param recipient 交易接受方
      * @param value     交易金额
+     * @param fee       手续费
      * @return String 交易信息
      */
     @Override
-    public Transaction createTransaction(String sender, String recipient, float value) {
+    public Transaction createTransaction(String sender, String recipient, long value, long fee) {
         // 处理网络原因导致的字符问题
         sender = sender.replace(" ", "+");
         recipient = recipient.replace(" ", "+");
-        Transaction newTransaction = walletService.sendFunds(sender, recipient, value);
-        ReentrantLock requestLock = LockUtil.getLockUtil().getStateLock();
-        Condition condition = LockUtil.getLockUtil().getWriteCondition();
+        Transaction newTransaction = walletService.sendFunds(sender, recipient, value, fee);
         // 若交易建立成功，则将交易放入交易池
         if (newTransaction != null) {
-            requestLock.lock();
-            try {
-                transactionRepo.save(newTransaction);
-                transactionPoolRepo.save(
-                        new TransactionsPoolEntity(newTransaction.getId(), newTransaction.getTimeStamp()));
-                log.info("新交易已提交！id: " + newTransaction.getId());
-                condition.signalAll();
-            } finally {
-                requestLock.unlock();
+            transactionRepo.save(newTransaction);
+            if (!mempoolService.submit(newTransaction)) {
+                // 超过区块字节数上限的交易无法被打包，撤销已保存的交易
+                transactionRepo.delete(newTransaction);
+                return null;
             }
+            addressHistoryService.record(newTransaction);
+            log.info("新交易已提交！id: " + newTransaction.getId());
             return newTransaction;
         } else {
             return null;
@@ -92,32 +121,35 @@ public class TransactionServiceImpl implements ITransactionService {
     }
 
     /**
-     * 计算交易输出
+     * 检查一个签名已验证的交易的输入是否仍然可用，不修改任何状态
      *
-     * @param transaction {@link Transaction} 交易
-     * @return 交易成功则返回true
+     * @param transaction {@link Transaction} 签名已验证的交易
+     * @return 交易合法则返回true
      */
     @Override
-    public boolean processTransaction(Transaction transaction) {
-        // 首先检查一个交易的合法性
-        // 验签
-        if (!isValidSignature(transaction)) {
-            log.warn("交易" + transaction.getId() + "签名信息异常！请审计该交易！");
+    public boolean validateTransaction(Transaction transaction) {
+        if (transaction.getOutputUtxos() == null) {
+            // 交易输出在交易创建时生成，只随交易池记录与预写日志中的交易编码保存，缺少输出的交易无法被打包
             return false;
         }
-        float inputsValue = getInputsValue(transaction);
-        // 计算剩余价值
-        if (inputsValue == 0) {
-            // 输入已经被消耗
+        if (transaction.getValue() <= 0 || transaction.getFee() < 0) {
             return false;
         }
+        long inputsValue = getInputsValue(transaction);
+        // 输入已经被消耗或不足以支付交易金额与手续费，金额均非负，按差值比较不会溢出
+        return inputsValue != 0 && inputsValue >= transaction.getValue()
+                && inputsValue - transaction.getValue() >= transaction.getFee();
+    }
 
-        // 从全局删除交易方的UTXO
-        for (String inputId : transaction.getInputUtxosId()) {
-            utxoRepo.deleteById(inputId);
-        }
-
-        float leftOver = inputsValue - transaction.getValue();
+    /**
+     * 生成交易输出：向接收方支付交易金额，扣除手续费后的剩余金额找零给发送方
+     *
+     * @param transaction {@link Transaction} 交易
+     * @param inputsValue 交易输入总值
+     */
+    @Override
+    public void generateOutputs(Transaction transaction, long inputsValue) {
+        long leftOver = inputsValue - transaction.getValue() - transaction.getFee();
 
         PublicKey senderAddress = latteChain.getUsers().get(transaction.getSenderString()).getPublicKey();
         PublicKey recipientAddress = latteChain.getUsers().get(transaction.getRecipientString()).getPublicKey();
@@ -135,8 +167,6 @@ public class TransactionServiceImpl implements ITransactionService {
         transaction.getOutputUtxos().add(sendUtxo);
         // 将剩余金额返回至发送方
         transaction.getOutputUtxos().add(backUtxo);
-        transactionRepo.saveAndFlush(transaction);
-        return true;
     }
 
     /**
@@ -146,15 +176,15 @@ public class TransactionServiceImpl implements ITransactionService {
      * @return 输入总值
      */
     @Override
-    public float getInputsValue(Transaction transaction) {
-        float total = 0;
+    public long getInputsValue(Transaction transaction) {
+        long total = 0;
         Utxo output;
         for (String input : transaction.getInputUtxosId()) {
-            output = utxoRepo.getTransactionOutputById(input);
+            output = utxoService.getUtxo(input);
             if (output == null) {
                 return 0;
             } else {
-                total += output.getValue();
+                total = Math.addExact(total, output.getValue());
             }
         }
         return total;
@@ -174,10 +204,33 @@ public class TransactionServiceImpl implements ITransactionService {
     @Override
     public boolean isValidSignature(Transaction transaction) {
         Wallet senderWallet = latteChain.getUsers().get(transaction.getSenderString());
+        if (senderWallet == null) {
+            // 发起方不存在
+            return false;
+        }
         transaction.setSender(senderWallet.getPublicKey());
-        return CryptoUtil.verifySm2Signature(transaction.getSender(),
+        // 同一交易会被多个矿工线程反复验证，命中缓存时直接返回此前的验证结果
+        SignatureVerdict cached = signatureCache.get(transaction.getId());
+        if (cached != null && cached.matches(transaction)) {
+            return cached.valid;
+        }
+        boolean valid = CryptoUtil.verifySm2Signature(transaction.getSender(),
                 transaction.getData(),
                 transaction.getSignature());
+        signatureCache.put(transaction.getId(), new SignatureVerdict(transaction, valid));
+        return valid;
+    }
+
+    /**
+     * 并行验证一批交易的签名
+     *
+     * @param transactions {@link Transaction} 交易列表
+     * @return 交易ID -> 签名是否合法
+     */
+    @Override
+    public Map<String, Boolean> verifySignatures(List<Transaction> transactions) {
+        return transactions.parallelStream()
+                .collect(Collectors.toConcurrentMap(Transaction::getId, this::isValidSignature, Boolean::logicalAnd));
     }
 
     @Override
@@ -189,7 +242,7 @@ public class TransactionServiceImpl implements ITransactionService {
             long startTime = System.currentTimeMillis();
             Transaction transaction = transactionRepo.getTransactionById(id);
             TransactionDigest digest = new TransactionDigest(id, transaction.getSenderString(), transaction.getRecipientString(),
-                    transaction.getValue().toString(), transaction.getRegistrationMsg(), Long.toString(transaction.getTimeStamp()));
+                    AmountUtil.format(transaction.getValue()), transaction.getRegistrationMsg(), Long.toString(transaction.getTimeStamp()));
             long endTime = System.currentTimeMillis();
             System.out.println(Thread.currentThread().getName() + "消耗时间:" + (endTime - startTime) + "ms");
             return JsonUtil.toJson(digest);
@@ -210,4 +263,72 @@ public class TransactionServiceImpl implements ITransactionService {
             System.out.println("修改失败");
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<String, RedactionStatus> modifyTransactions(String sender, List<String> ids) {
+        long startTime = System.currentTimeMillis();
+        Map<String, RedactionStatus> statuses = new LinkedHashMap<>();
+        for (String id : ids) {
+            statuses.put(id, RedactionStatus.NOT_FOUND);
+        }
+        Wallet senderUser = latteChain.getUsers().get(sender);
+        if (senderUser == null) {
+            statuses.replaceAll((id, status) -> RedactionStatus.NOT_OWNER);
+            return statuses;
+        }
+
+        // 一次查询获取所有目标交易的发起方，并行计算各交易的碰撞
+        Map<String, String> newMessages = new ConcurrentHashMap<>();
+        Map<String, RedactionStatus> results = new ConcurrentHashMap<>();
+        transactionRepo.findByIdIn(statuses.keySet()).parallelStream().forEach(view -> {
+            // 交易的sender列保存的是发起方的账户地址而非公钥
+            if (!sender.equals(view.getSenderString())) {
+                results.put(view.getId(), RedactionStatus.NOT_OWNER);
+                return;
+            }
+            if (redactionKeyService.get(view.getId()) == null) {
+                results.put(view.getId(), RedactionStatus.NO_KEY);
+                return;
+            }
+            String newMsg = chameleonService.modifyMessage(view.getId(), senderUser);
+            if (newMsg == null) {
+                results.put(view.getId(), RedactionStatus.VERIFY_FAILED);
+                return;
+            }
+            newMessages.put(view.getId(), newMsg);
+            results.put(view.getId(), RedactionStatus.MODIFIED);
+        });
+        statuses.putAll(results);
+
+        // 所有修改结果在一个JDBC批次中写入
+        List<Object[]> updates = new ArrayList<>(newMessages.size());
+        newMessages.forEach((id, newMsg) -> updates.add(new Object[]{newMsg, id}));
+        jdbcTemplate.batchUpdate("update transactions set registration_message = ? where transaction_id = ?",
+                updates);
+        log.info("批量修改" + updates.size() + "/" + ids.size() + "个交易信息耗时：" +
+                (System.currentTimeMillis() - startTime) + "ms");
+        return statuses;
+    }
+
+    /**
+     * 一次验签的结果，仅当交易数据与签名均未改变时才可复用
+     */
+    private static class SignatureVerdict {
+        private final String data;
+
+        private final byte[] signature;
+
+        private final boolean valid;
+
+        private SignatureVerdict(Transaction transaction, boolean valid) {
+            this.data = transaction.getData();
+            this.signature = transaction.getSignature();
+            this.valid = valid;
+        }
+
+        private boolean matches(Transaction transaction) {
+            return Objects.equals(data, transaction.getData())
+                    && Arrays.equals(signature, transaction.getSignature());
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package com.latte.blockchain.service.impl;
 
+import com.latte.blockchain.entity.BalanceChangedEvent;
 import com.latte.blockchain.utils.LatteChain;
 import com.latte.blockchain.entity.Wallet;
 import com.latte.blockchain.enums.LatteChainConfEnum;
 import com.latte.blockchain.service.IUserService;
-import com.latte.blockchain.service.IWalletService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.security.PublicKey;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author float311
@@ -20,8 +21,10 @@ public class UserServiceImpl implements IUserService {
 
     private final LatteChain latteChain = LatteChain.getInstance();
 
-    @Autowired
-    private IWalletService walletService;
+    /**
+     * 公钥字符串 -> 钱包，用于将余额变化事件对应到账户
+     */
+    private final Map<String, Wallet> walletsByKey = new ConcurrentHashMap<>();
 
     /**
      * 初始化区块链系统中预置账户信息
@@ -35,9 +38,11 @@ public class UserServiceImpl implements IUserService {
         // 设置系统管理员公钥地址
         latteChain.setAdminPublicKey(newUser.getPublicKey());
         latteChain.getUsers().put("admin", newUser);
+        walletsByKey.put(newUser.getPublicKeyString(), newUser);
         for (int i = 1; i < LatteChainConfEnum.INIT_ACCOUNT_AMOUNTS; i++) {
             newUser = new Wallet();
             latteChain.getUsers().put(newUser.getName(), newUser);
+            walletsByKey.put(newUser.getPublicKeyString(), newUser);
         }
     }
 
@@ -52,12 +57,26 @@ public class UserServiceImpl implements IUserService {
         return latteChain.getUsers().get(address).getPublicKey();
     }
 
+    /**
+     * 账户余额由余额变化事件维护，直接返回当前快照
+     *
+     * @return 账户地址 -> 钱包
+     */
     @Override
     public Map<String, Wallet> getAllUsersInfo() {
-        // 刷新所有用戶的信息
-        for (String address : latteChain.getUsers().keySet()) {
-            latteChain.getUsers().get(address).setBalance(walletService.getBalance(address));
-        }
         return latteChain.getUsers();
     }
+
+    /**
+     * 随UTXO集合的变化更新账户余额，不属于系统账户的所有者被忽略
+     *
+     * @param event {@link BalanceChangedEvent}
+     */
+    @EventListener
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        Wallet wallet = walletsByKey.get(event.getOwner());
+        if (wallet != null) {
+            wallet.setBalance(event.getBalance());
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package com.latte.blockchain.service.impl;
+
+import com.latte.blockchain.entity.BalanceChangedEvent;
+import com.latte.blockchain.entity.Utxo;
+import com.latte.blockchain.repository.UtxoRepo;
+import com.latte.blockchain.service.IUtxoService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * 内存UTXO集合，按id索引，并按所有者建立二级索引和余额，余额变化以{@link BalanceChangedEvent}发布
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+@Service
+@Slf4j
+public class UtxoServiceImpl implements IUtxoService {
+
+    /**
+     * 全局UTXO DAO对象
+     */
+    @Autowired
+    private UtxoRepo utxoRepo;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * utxo id -> UTXO
+     */
+    private final Map<String, Utxo> utxos = new ConcurrentHashMap<>();
+
+    /**
+     * 所有者公钥 -> 所有者索引
+     */
+    private final Map<String, OwnerIndex> owners = new ConcurrentHashMap<>();
+
+    /**
+     * 从global_utxo表重建内存UTXO集合，启动时没有链状态快照才由链服务调用
+     */
+    @Override
+    public void rebuild() {
+        restore(utxoRepo.findAll());
+    }
+
+    @Override
+    public void restore(Collection<Utxo> restored) {
+        utxos.clear();
+        owners.clear();
+        for (Utxo utxo : restored) {
+            index(utxo);
+        }
+        owners.keySet().forEach(this::publishBalance);
+        log.info("[UTXO] 已加载" + utxos.size() + "个UTXO");
+    }
+
+    @Override
+    public List<Utxo> snapshot() {
+        return new ArrayList<>(utxos.values());
+    }
+
+    @Override
+    public void applyBlock(Collection<String> spentIds, Collection<Utxo> created) {
+        Set<String> changed = new HashSet<>();
+        for (String id : spentIds) {
+            Utxo utxo = unindex(id);
+            if (utxo != null) {
+                changed.add(utxo.getRecipientString());
+            }
+        }
+        for (Utxo utxo : created) {
+            index(utxo);
+            changed.add(utxo.getRecipientString());
+        }
+        // 区块的所有变化应用完成后再发布，订阅方不会看到找零尚未到账的中间余额
+        changed.forEach(this::publishBalance);
+    }
+
+    @Override
+    public Utxo getUtxo(String id) {
+        return utxos.get(id);
+    }
+
+    @Override
+    public long getBalance(String owner) {
+        OwnerIndex index = owners.get(owner);
+        if (index == null) {
+            return 0;
+        }
+        synchronized (index) {
+            return index.balance;
+        }
+    }
+
+    @Override
+    public List<Utxo> getUtxos(String owner) {
+        OwnerIndex index = owners.get(owner);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        synchronized (index) {
+            return new ArrayList<>(index.utxos.values());
+        }
+    }
+
+    /**
+     * 发布所有者的当前余额，区块提交已串行执行，同一所有者的事件不会乱序
+     *
+     * @param owner 所有者公钥字符串
+     */
+    private void publishBalance(String owner) {
+        eventPublisher.publishEvent(new BalanceChangedEvent(owner, getBalance(owner)));
+    }
+
+    /**
+     * 将UTXO加入id索引与所有者索引
+     *
+     * @param utxo {@link Utxo}
+     */
+    private void index(Utxo utxo) {
+        OwnerIndex owner = owners.computeIfAbsent(utxo.getRecipientString(), key -> new OwnerIndex());
+        synchronized (owner) {
+            if (utxos.putIfAbsent(utxo.getId(), utxo) != null) {
+                return;
+            }
+            owner.utxos.put(utxo.getId(), utxo);
+            owner.balance = Math.addExact(owner.balance, utxo.getValue());
+        }
+    }
+
+    /**
+     * 将UTXO移出id索引与所有者索引
+     *
+     * @param id UTXO的id
+     * @return 被移除的{@link Utxo}，不存在则返回null
+     */
+    private Utxo unindex(String id) {
+        Utxo utxo = utxos.remove(id);
+        if (utxo == null) {
+            return null;
+        }
+        OwnerIndex owner = owners.get(utxo.getRecipientString());
+        synchronized (owner) {
+            owner.utxos.remove(id);
+            owner.balance = Math.subtractExact(owner.balance, utxo.getValue());
+        }
+        return utxo;
+    }
+
+    /**
+     * 单个所有者的UTXO及余额，读写时需对其加锁
+     */
+    private static class OwnerIndex {
+        private final Map<String, Utxo> utxos = new LinkedHashMap<>();
+
+        private long balance;
+    }
+}
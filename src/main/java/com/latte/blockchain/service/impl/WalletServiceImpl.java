@@ -1,9 +1,9 @@
 package com.latte.blockchain.service.impl;
 
-import com.latte.blockchain.repository.UtxoRepo;
 import com.latte.blockchain.entity.*;
 import com.latte.blockchain.service.IChameleonService;
 import com.latte.blockchain.service.ITransactionService;
+import com.latte.blockchain.service.IUtxoService;
 import com.latte.blockchain.service.IWalletService;
 
 import com.latte.blockchain.utils.LatteChain;
@@ -29,10 +29,10 @@ public class WalletServiceImpl implements IWalletService {
     private IChameleonService chameleonService;
 
     /**
-     * UTXO DAO
+     * 全局UTXO集合
      */
     @Autowired
-    private UtxoRepo utxoDao;
+    private IUtxoService utxoService;
 
     /**
      * 获取账户余额
@@ -41,16 +41,9 @@ public class WalletServiceImpl implements IWalletService {
      * @return 账户余额
      */
     @Override
-    public float getBalance(Wallet userWallet) {
-        float total = 0;
-        // 从全局的UTXO中收集该用户的UTXO并进行结算
-        for (Utxo record : utxoDao.findAll()) {
-            if (record.getRecipientString().equals(userWallet.getPublicKeyString())) {
-                userWallet.getUTXOs().put(record.getId(), record);
-                total += record.getValue();
-            }
-        }
-        return total;
+    public long getBalance(Wallet userWallet) {
+        // 余额由全局UTXO集合按所有者增量维护
+        return utxoService.getBalance(userWallet.getPublicKeyString());
     }
 
     /**
@@ -60,7 +53,7 @@ public class WalletServiceImpl implements IWalletService {
      * @return 账户余额
      */
     @Override
-    public float getBalance(String address) {
+    public long getBalance(String address) {
         address = address.replace(" ", "+");
         Wallet userWallet = latteChain.getUsers().get(address);
         return getBalance(userWallet);
@@ -72,10 +65,11 @@ public class WalletServiceImpl implements IWalletService {
      * @param sender    发送方
      * @param recipient 接收方
      * @param value     交易值
+     * @param fee       手续费
      * @return {@link Transaction} 交易
      */
     @Override
-    public Transaction sendFunds(String sender, String recipient, float value) {
+    public Transaction sendFunds(String sender, String recipient, long value, long fee) {
         Wallet senderWallet = latteChain.getUsers().get(sender);
         Wallet recipientWallet = latteChain.getUsers().get(recipient);
         if (senderWallet == null || recipientWallet == null) {
@@ -83,22 +77,27 @@ public class WalletServiceImpl implements IWalletService {
             return null;
         }
 
+        if (value <= 0 || fee < 0) {
+            // 非正的交易金额会凭空产生找零
+            return null;
+        }
+        long required = Math.addExact(value, fee);
         // 收集用户的账户金额
-        if (this.getBalance(senderWallet) < value) {
+        if (this.getBalance(senderWallet) < required) {
             // 发起方余额不足，取消交易
             return null;
         }
 
         // 开始构造交易输入
         Set<String> inputs = new HashSet<>();
-        float total = 0;
+        long total = 0;
 
         // 收集交易发起者的UTXO
-        for (Utxo item : senderWallet.getUTXOs().values()) {
-            total += item.getValue();
+        for (Utxo item : utxoService.getUtxos(senderWallet.getPublicKeyString())) {
+            total = Math.addExact(total, item.getValue());
             inputs.add(item.getId());
             // 已经满足支出需求
-            if (total >= value) {
+            if (total >= required) {
                 break;
             }
         }
@@ -107,21 +106,15 @@ public class WalletServiceImpl implements IWalletService {
                 recipientWallet.getPublicKey(), value, inputs);
         newTransaction.setSenderString(sender);
         newTransaction.setRecipientString(recipient);
+        newTransaction.setFee(fee);
         // 设置交易数据
-        String mainData = sender + '-' +
-                recipient + '-' +
-                value + '-' +
-                newTransaction.getTimeStamp() + '-' +
-                newTransaction.getRegistrationMsg();
-        newTransaction.setData(mainData);
+        newTransaction.setData(Transaction.composeData(sender, recipient, value, fee,
+                newTransaction.getTimeStamp(), newTransaction.getRegistrationMsg()));
         // 利用变色龙哈希生成交易ID
         chameleonService.generateHash(newTransaction, senderWallet);
         transactionService.generateSignature(senderWallet.getPrivateKey(), newTransaction);
-
-        // 扣除发起者的花费的UTXO(从个人钱包里)
-        for (String input : inputs) {
-            senderWallet.getUTXOs().remove(input);
-        }
+        // 交易输出随交易一同确定，矿工打包时不再修改交易
+        transactionService.generateOutputs(newTransaction, total);
         return newTransaction;
     }
 }
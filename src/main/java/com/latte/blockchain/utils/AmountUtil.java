@@ -0,0 +1,56 @@
+package com.latte.blockchain.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * 金额工具类：账本中的金额均为以最小单位计的long定点数，1 LC = {@link #UNITS}个最小单位，
+ * 仅在输入输出时与十进制字符串相互转换
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public final class AmountUtil {
+
+    /**
+     * 小数位数
+     */
+    public static final int SCALE = 8;
+
+    /**
+     * 1 LC对应的最小单位数量
+     */
+    public static final long UNITS = 100_000_000L;
+
+    private AmountUtil() {
+    }
+
+    /**
+     * 将十进制金额字符串转换为最小单位
+     *
+     * @param amount 十进制金额，如"0.1"
+     * @return 最小单位数量
+     * @throws NumberFormatException 格式错误、为负数、小数位数超过{@link #SCALE}或超出long范围
+     */
+    public static long parse(String amount) {
+        long units;
+        try {
+            units = new BigDecimal(amount.trim()).movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("无法精确表示的金额: " + amount);
+        }
+        if (units < 0) {
+            throw new NumberFormatException("金额不能为负数: " + amount);
+        }
+        return units;
+    }
+
+    /**
+     * 将最小单位转换为十进制金额字符串，去除末尾的0
+     *
+     * @param units 最小单位数量
+     * @return 十进制金额，如"0.1"
+     */
+    public static String format(long units) {
+        return BigDecimal.valueOf(units, SCALE).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,419 @@
+package com.latte.blockchain.utils;
+
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 区块、交易与UTXO的二进制编解码
+ * <p>
+ * 每个对象编码为[int 长度][byte 版本][byte 类型][内容]，长度不含自身。哈希值以32字节原始形式保存，
+ * 公钥以33字节压缩点保存，金额以long最小单位保存。解码时按长度跳过当前版本未知的尾部字段。
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public final class BinaryCodec {
+
+    /**
+     * 编码格式版本
+     */
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_BLOCK = 1;
+
+    private static final byte TYPE_TRANSACTION = 2;
+
+    private static final byte TYPE_UTXO = 3;
+
+    /**
+     * 哈希值标记：null、32字节原始哈希、无法按哈希解析的字符串(如创世块的前一区块哈希"0"与空merkle根"")
+     */
+    private static final byte HASH_EMPTY = 0;
+
+    private static final byte HASH_RAW = 1;
+
+    private static final byte HASH_STRING = 2;
+
+    /**
+     * 公钥标记：空、压缩公钥
+     */
+    private static final byte KEY_NONE = 0;
+
+    private static final byte KEY_COMPRESSED = 1;
+
+    /**
+     * SM2压缩公钥长度
+     */
+    private static final int COMPRESSED_KEY_LENGTH = 33;
+
+    /**
+     * 交易数据标记：空、可由交易字段还原、显式保存
+     */
+    private static final byte DATA_NONE = 0;
+
+    private static final byte DATA_COMPOSED = 1;
+
+    private static final byte DATA_EXPLICIT = 2;
+
+    private static final ByteBufferPool BUFFERS = new ByteBufferPool(64 * 1024, 64, false);
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * 编码区块及其包含的交易
+     *
+     * @param block  {@link Block}
+     * @param buffer 目标缓冲区
+     */
+    public static void encode(Block block, ByteBuffer buffer) {
+        int start = writeHeader(buffer, TYPE_BLOCK);
+        buffer.putLong(block.getId());
+        writeHash(buffer, block.getHash());
+        writeHash(buffer, block.getPreviousHash());
+        writeHash(buffer, block.getMerkleRoot());
+        writeString(buffer, block.getMsg());
+        buffer.putLong(block.getTimeStamp());
+        buffer.putInt(block.getNonce());
+        List<Transaction> transactions = block.getTransactions();
+        buffer.putInt(transactions == null ? 0 : transactions.size());
+        if (transactions != null) {
+            for (Transaction transaction : transactions) {
+                encode(transaction, buffer);
+            }
+        }
+        writeLength(buffer, start);
+    }
+
+    /**
+     * 编码交易，包括尚未持久化的交易输出
+     *
+     * @param transaction {@link Transaction}
+     * @param buffer      目标缓冲区
+     */
+    public static void encode(Transaction transaction, ByteBuffer buffer) {
+        int start = writeHeader(buffer, TYPE_TRANSACTION);
+        writeHash(buffer, transaction.getId());
+        // 交易双方以账户地址标识，公钥仅在已加载时保存
+        writeString(buffer, transaction.getSenderString());
+        writeString(buffer, transaction.getRecipientString());
+        writeKey(buffer, transaction.getSender(), null);
+        writeKey(buffer, transaction.getRecipient(), null);
+        buffer.putLong(transaction.getValue());
+        buffer.putLong(transaction.getFee());
+        buffer.putLong(transaction.getTimeStamp());
+        writeHashes(buffer, transaction.getInputUtxosId());
+        writeHashes(buffer, transaction.getOutputUtxosId());
+        Set<Utxo> outputs = transaction.getOutputUtxos();
+        buffer.putInt(outputs == null ? 0 : outputs.size());
+        if (outputs != null) {
+            for (Utxo output : outputs) {
+                encode(output, buffer);
+            }
+        }
+        writeBytes(buffer, transaction.getSignature());
+        writeString(buffer, transaction.getRegistrationMsg());
+        String data = transaction.getData();
+        if (data == null) {
+            buffer.put(DATA_NONE);
+        } else if (data.equals(Transaction.composeData(transaction.getSenderString(),
+                transaction.getRecipientString(), transaction.getValue(), transaction.getFee(),
+                transaction.getTimeStamp(), null))) {
+            // 交易数据在生成注册信息前组装，可由其余字段还原
+            buffer.put(DATA_COMPOSED);
+        } else {
+            buffer.put(DATA_EXPLICIT);
+            writeString(buffer, data);
+        }
+        writeLength(buffer, start);
+    }
+
+    /**
+     * 编码UTXO
+     *
+     * @param utxo   {@link Utxo}
+     * @param buffer 目标缓冲区
+     */
+    public static void encode(Utxo utxo, ByteBuffer buffer) {
+        int start = writeHeader(buffer, TYPE_UTXO);
+        writeHash(buffer, utxo.getId());
+        writeKey(buffer, utxo.getRecipient(), utxo.getRecipientString());
+        buffer.putLong(utxo.getValue());
+        buffer.putLong(utxo.getTimeStamp());
+        writeHash(buffer, utxo.getRefTransactionId());
+        writeLength(buffer, start);
+    }
+
+    /**
+     * 解码区块
+     *
+     * @param buffer 源缓冲区，读取后位于该对象之后
+     * @return {@link Block}
+     */
+    public static Block decodeBlock(ByteBuffer buffer) {
+        int end = readHeader(buffer, TYPE_BLOCK);
+        long id = buffer.getLong();
+        String hash = readHash(buffer);
+        String previousHash = readHash(buffer);
+        String merkleRoot = readHash(buffer);
+        Block block = new Block(previousHash, readString(buffer));
+        block.setId(id);
+        block.setHash(hash);
+        block.setMerkleRoot(merkleRoot);
+        block.setTimeStamp(buffer.getLong());
+        block.setNonce(buffer.getInt());
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            block.addTransaction(decodeTransaction(buffer));
+        }
+        buffer.position(end);
+        return block;
+    }
+
+    /**
+     * 解码交易
+     *
+     * @param buffer 源缓冲区，读取后位于该对象之后
+     * @return {@link Transaction}
+     */
+    public static Transaction decodeTransaction(ByteBuffer buffer) {
+        int end = readHeader(buffer, TYPE_TRANSACTION);
+        String id = readHash(buffer);
+        String senderString = readString(buffer);
+        String recipientString = readString(buffer);
+        PublicKey sender = readKey(buffer);
+        PublicKey recipient = readKey(buffer);
+        long value = buffer.getLong();
+        long fee = buffer.getLong();
+        long timeStamp = buffer.getLong();
+        Transaction transaction = new Transaction(sender, recipient, value, readHashes(buffer));
+        transaction.setId(id);
+        transaction.setFee(fee);
+        transaction.setSenderString(senderString);
+        transaction.setRecipientString(recipientString);
+        transaction.setTimeStamp(timeStamp);
+        transaction.setOutputUtxosId(readHashes(buffer));
+        int outputCount = buffer.getInt();
+        if (outputCount > 0) {
+            Set<Utxo> outputs = new HashSet<>();
+            for (int i = 0; i < outputCount; i++) {
+                outputs.add(decodeUtxo(buffer));
+            }
+            transaction.setOutputUtxos(outputs);
+        }
+        transaction.setSignature(readBytes(buffer));
+        transaction.setRegistrationMsg(readString(buffer));
+        byte dataTag = buffer.get();
+        if (dataTag == DATA_COMPOSED) {
+            transaction.setData(Transaction.composeData(senderString, recipientString, value, fee, timeStamp, null));
+        } else if (dataTag == DATA_EXPLICIT) {
+            transaction.setData(readString(buffer));
+        }
+        buffer.position(end);
+        return transaction;
+    }
+
+    /**
+     * 解码UTXO
+     *
+     * @param buffer 源缓冲区，读取后位于该对象之后
+     * @return {@link Utxo}
+     */
+    public static Utxo decodeUtxo(ByteBuffer buffer) {
+        int end = readHeader(buffer, TYPE_UTXO);
+        // 字段均已编码，无需经由构造函数重新计算ID与时间戳
+        Utxo utxo = new Utxo();
+        utxo.setId(readHash(buffer));
+        PublicKey recipient = readKey(buffer);
+        utxo.setRecipient(recipient);
+        utxo.setRecipientString(recipient == null ? null : CryptoUtil.getStringFromKey(recipient));
+        utxo.setValue(buffer.getLong());
+        utxo.setTimeStamp(buffer.getLong());
+        utxo.setRefTransactionId(readHash(buffer));
+        buffer.position(end);
+        return utxo;
+    }
+
+    public static byte[] toBytes(Block block) {
+        return toBytes(block, BinaryCodec::encode);
+    }
+
+    public static byte[] toBytes(Transaction transaction) {
+        return toBytes(transaction, BinaryCodec::encode);
+    }
+
+    public static byte[] toBytes(Utxo utxo) {
+        return toBytes(utxo, BinaryCodec::encode);
+    }
+
+    /**
+     * 使用池中的缓冲区编码对象，对象超出缓冲区大小时改用更大的临时缓冲区
+     */
+    private static <T> byte[] toBytes(T object, BiConsumer<T, ByteBuffer> encoder) {
+        ByteBuffer pooled = BUFFERS.acquire();
+        ByteBuffer buffer = pooled;
+        try {
+            while (true) {
+                try {
+                    encoder.accept(object, buffer);
+                    break;
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+            buffer.flip();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } finally {
+            BUFFERS.release(pooled);
+        }
+    }
+
+    private static int writeHeader(ByteBuffer buffer, byte type) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(FORMAT_VERSION);
+        buffer.put(type);
+        return start;
+    }
+
+    private static void writeLength(ByteBuffer buffer, int start) {
+        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+    }
+
+    /**
+     * 读取对象头
+     *
+     * @return 对象结束位置
+     */
+    private static int readHeader(ByteBuffer buffer, byte type) {
+        int length = buffer.getInt();
+        int end = buffer.position() + length;
+        byte version = buffer.get();
+        byte actualType = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的编码版本: " + version);
+        }
+        if (actualType != type) {
+            throw new IllegalArgumentException("对象类型不匹配: 期望" + type + "，实际" + actualType);
+        }
+        return end;
+    }
+
+    private static void writeHash(ByteBuffer buffer, String hash) {
+        if (hash == null) {
+            buffer.put(HASH_EMPTY);
+        } else if (hash.length() == BlockHeaderHasher.HASH_LENGTH * 2 && isLowerHex(hash)) {
+            buffer.put(HASH_RAW);
+            buffer.put(CryptoUtil.hashToBytes(hash));
+        } else {
+            buffer.put(HASH_STRING);
+            writeString(buffer, hash);
+        }
+    }
+
+    private static String readHash(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        if (tag == HASH_RAW) {
+            byte[] hash = new byte[BlockHeaderHasher.HASH_LENGTH];
+            buffer.get(hash);
+            return CryptoUtil.bytesToHash(hash);
+        }
+        return tag == HASH_STRING ? readString(buffer) : null;
+    }
+
+    /**
+     * 仅小写16进制字符串可以无损地按原始字节保存
+     */
+    private static boolean isLowerHex(String hash) {
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHashes(ByteBuffer buffer, Collection<String> hashes) {
+        buffer.putInt(hashes == null ? 0 : hashes.size());
+        if (hashes != null) {
+            for (String hash : hashes) {
+                writeHash(buffer, hash);
+            }
+        }
+    }
+
+    private static Set<String> readHashes(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Set<String> hashes = new HashSet<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            hashes.add(readHash(buffer));
+        }
+        return hashes;
+    }
+
+    /**
+     * 写入压缩公钥，公钥对象未加载(如从数据库读取的实体)时由其字符串形式还原
+     */
+    private static void writeKey(ByteBuffer buffer, PublicKey key, String keyString) {
+        if (key == null && keyString != null) {
+            key = CryptoUtil.getKeyFromString(keyString);
+        }
+        if (key == null) {
+            buffer.put(KEY_NONE);
+            return;
+        }
+        buffer.put(KEY_COMPRESSED);
+        buffer.put(CryptoUtil.compressPublicKey(key));
+    }
+
+    private static PublicKey readKey(ByteBuffer buffer) {
+        if (buffer.get() == KEY_NONE) {
+            return null;
+        }
+        byte[] compressed = new byte[COMPRESSED_KEY_LENGTH];
+        buffer.get(compressed);
+        return CryptoUtil.decompressPublicKey(compressed);
+    }
+
+    private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        writeBytes(buffer, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = readBytes(buffer);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
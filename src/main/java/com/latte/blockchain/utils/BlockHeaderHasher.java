@@ -0,0 +1,109 @@
+package com.latte.blockchain.utils;
+
+import cn.hutool.core.util.HexUtil;
+import com.latte.blockchain.entity.Block;
+import org.bouncycastle.crypto.digests.SM3Digest;
+
+/**
+ * 区块头二进制哈希工具，区块头中除nonce外的部分只编码一次并预先压入SM3状态(midstate)，
+ * 每次尝试nonce时仅复制该状态并追加4字节的nonce，计算过程中不产生任何对象分配。
+ * <p>
+ * 区块头编码: id(8) | previousHash(32) | timeStamp(8) | merkleRoot(32) | nonce(4)，整数均为大端序。
+ * <p>
+ * 非线程安全，每个搜索线程需持有独立的实例
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class BlockHeaderHasher {
+
+    /**
+     * SM3摘要长度
+     */
+    public static final int HASH_LENGTH = 32;
+
+    /**
+     * 区块头中除nonce外的部分的长度
+     */
+    private static final int PREFIX_LENGTH = 8 + HASH_LENGTH + 8 + HASH_LENGTH;
+
+    /**
+     * 已压入区块头前缀的SM3状态
+     */
+    private final SM3Digest midstate = new SM3Digest();
+
+    /**
+     * 每次尝试使用的工作状态
+     */
+    private final SM3Digest work;
+
+    /**
+     * nonce编码缓冲区
+     */
+    private final byte[] nonceBuffer = new byte[4];
+
+    /**
+     * @param block 区块，merkle根需已确定
+     */
+    public BlockHeaderHasher(Block block) {
+        byte[] prefix = new byte[PREFIX_LENGTH];
+        putLong(prefix, 0, block.getId());
+        System.arraycopy(CryptoUtil.hashToBytes(block.getPreviousHash()), 0, prefix, 8, HASH_LENGTH);
+        putLong(prefix, 8 + HASH_LENGTH, block.getTimeStamp());
+        System.arraycopy(CryptoUtil.hashToBytes(block.getMerkleRoot()), 0, prefix, 16 + HASH_LENGTH, HASH_LENGTH);
+        midstate.update(prefix, 0, PREFIX_LENGTH);
+        work = new SM3Digest(midstate);
+    }
+
+    /**
+     * 计算指定nonce下的区块头哈希值
+     *
+     * @param nonce nonce值
+     * @param out   长度不小于{@link #HASH_LENGTH}的输出缓冲区
+     */
+    public void hash(int nonce, byte[] out) {
+        work.reset(midstate);
+        nonceBuffer[0] = (byte) (nonce >>> 24);
+        nonceBuffer[1] = (byte) (nonce >>> 16);
+        nonceBuffer[2] = (byte) (nonce >>> 8);
+        nonceBuffer[3] = (byte) nonce;
+        work.update(nonceBuffer, 0, nonceBuffer.length);
+        work.doFinal(out, 0);
+    }
+
+    /**
+     * 计算指定nonce下的区块头哈希值
+     *
+     * @param nonce nonce值
+     * @return String 16进制哈希值
+     */
+    public String hashHex(int nonce) {
+        byte[] out = new byte[HASH_LENGTH];
+        hash(nonce, out);
+        return HexUtil.encodeHexStr(out);
+    }
+
+    /**
+     * 统计摘要的前导0比特数
+     *
+     * @param digest 摘要
+     * @return 前导0比特数
+     */
+    public static int leadingZeroBits(byte[] digest) {
+        int bits = 0;
+        for (byte b : digest) {
+            if (b != 0) {
+                return bits + Integer.numberOfLeadingZeros(b & 0xFF) - 24;
+            }
+            bits += 8;
+        }
+        return bits;
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
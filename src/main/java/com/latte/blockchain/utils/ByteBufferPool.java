@@ -0,0 +1,69 @@
+package com.latte.blockchain.utils;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小的ByteBuffer池，避免编解码时反复分配缓冲区
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class ByteBufferPool {
+
+    @Getter
+    private final int bufferSize;
+
+    private final int maxPooled;
+
+    private final boolean direct;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param bufferSize 缓冲区大小
+     * @param maxPooled  池中最多保留的缓冲区数量
+     * @param direct     是否使用堆外缓冲区
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+    }
+
+    /**
+     * 获取一个已清空的缓冲区，池为空时新建
+     *
+     * @return {@link ByteBuffer}
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，非本池大小的缓冲区或池已满时直接丢弃
+     *
+     * @param buffer {@link ByteBuffer}
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isDirect() != direct) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffers.offer(buffer);
+    }
+}
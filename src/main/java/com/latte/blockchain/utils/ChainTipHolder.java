@@ -0,0 +1,78 @@
+package com.latte.blockchain.utils;
+
+import com.latte.blockchain.entity.ChainTip;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 链顶持有者。矿工无锁地基于某一链顶组装并计算区块，提交时通过对链顶的CAS取得提交权，
+ * CAS失败说明链顶已被其他矿工推进，当前区块作废
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class ChainTipHolder {
+
+    /**
+     * 当前链顶
+     */
+    private final AtomicReference<ChainTip> tip = new AtomicReference<>();
+
+    /**
+     * 获取已发布的链顶，若有区块正在提交则等待其完成
+     *
+     * @return {@link ChainTip}
+     * @throws InterruptedException 等待时被中断
+     */
+    public ChainTip get() throws InterruptedException {
+        ChainTip current = tip.get();
+        if (current == null || !current.isCommitting()) {
+            return current;
+        }
+        synchronized (this) {
+            while ((current = tip.get()) != null && current.isCommitting()) {
+                wait();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 获取当前链顶，不等待正在进行的提交
+     *
+     * @return {@link ChainTip}
+     */
+    public ChainTip peek() {
+        return tip.get();
+    }
+
+    /**
+     * 链顶是否仍为expected
+     *
+     * @param expected 矿工组装区块时读取的链顶
+     * @return 未被推进则返回true
+     */
+    public boolean isCurrent(ChainTip expected) {
+        return tip.get() == expected;
+    }
+
+    /**
+     * 尝试取得基于expected提交新区块的权利
+     *
+     * @param expected 矿工组装区块时读取的链顶
+     * @return 取得提交权则返回true，此后必须调用{@link #publish(ChainTip)}
+     */
+    public boolean tryClaim(ChainTip expected) {
+        return !expected.isCommitting() && tip.compareAndSet(expected, expected.claim());
+    }
+
+    /**
+     * 发布新的链顶并唤醒等待中的矿工
+     *
+     * @param next 新链顶，提交失败时为原链顶
+     */
+    public synchronized void publish(ChainTip next) {
+        tip.set(next);
+        notifyAll();
+    }
+}
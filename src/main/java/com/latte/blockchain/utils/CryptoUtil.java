@@ -4,15 +4,28 @@ import cn.hutool.core.util.HexUtil;
 import com.latte.blockchain.entity.Transaction;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Base64;
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
 import java.security.Key;
+import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.MessageDigest;
+import java.security.spec.X509EncodedKeySpec;
 
 import cn.hutool.crypto.SmUtil;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.SM2Signer;
+import org.bouncycastle.jcajce.provider.asymmetric.util.ECUtil;
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+import org.bouncycastle.jce.spec.ECPublicKeySpec;
 
 /**
  * 生成电子签名的工具类
@@ -21,6 +34,24 @@ import cn.hutool.crypto.SmUtil;
  * @since 2021/1/27
  */
 public class CryptoUtil {
+
+    /**
+     * 公钥 -> SM2验签参数
+     */
+    private static final Map<PublicKey, ECPublicKeyParameters> SM2_VERIFY_PARAMS = new ConcurrentHashMap<>();
+
+    /**
+     * 每个线程独立的SM2验签器
+     */
+    private static final ThreadLocal<SM2Signer> SM2_VERIFIER = ThreadLocal.withInitial(SM2Signer::new);
+
+    /**
+     * SM2曲线参数，用于还原压缩公钥
+     */
+    private static final ECNamedCurveParameterSpec SM2_CURVE = ECNamedCurveTable.getParameterSpec("sm2p256v1");
+
+    private static final BouncyCastleProvider BC_PROVIDER = new BouncyCastleProvider();
+
     /**
      * Sm3哈希函数
      *
@@ -63,7 +94,90 @@ public class CryptoUtil {
      * @return 是否为一个合法的SM2签名信息
      */
     public static boolean verifySm2Signature(PublicKey publicKey, String msg, byte[] signature) {
-        return SmUtil.sm2(null, publicKey).verify(msg.getBytes(StandardCharsets.UTF_8), signature);
+        // 复用公钥对应的椭圆曲线参数与当前线程的验签器，避免每次验签都重新构造SM2对象
+        CipherParameters params = SM2_VERIFY_PARAMS.computeIfAbsent(publicKey, CryptoUtil::toSm2Params);
+        SM2Signer signer = SM2_VERIFIER.get();
+        signer.init(false, params);
+        byte[] data = msg.getBytes(StandardCharsets.UTF_8);
+        signer.update(data, 0, data.length);
+        return signer.verifySignature(signature);
+    }
+
+    /**
+     * 将公钥转换为SM2验签参数
+     *
+     * @param publicKey 公钥
+     * @return {@link ECPublicKeyParameters}
+     */
+    private static ECPublicKeyParameters toSm2Params(PublicKey publicKey) {
+        try {
+            return (ECPublicKeyParameters) ECUtil.generatePublicKeyParameter(publicKey);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 将16进制哈希值解码为32字节，非哈希值(如创世块的前一区块哈希"0"、空merkle根)解码为全0
+     *
+     * @param hash 16进制哈希值
+     * @return byte[] 哈希值
+     */
+    public static byte[] hashToBytes(String hash) {
+        if (hash == null || hash.length() != BlockHeaderHasher.HASH_LENGTH * 2) {
+            return new byte[BlockHeaderHasher.HASH_LENGTH];
+        }
+        return HexUtil.decodeHex(hash);
+    }
+
+    /**
+     * 将32字节哈希值编码为16进制字符串
+     *
+     * @param hash 哈希值
+     * @return String 16进制哈希值
+     */
+    public static String bytesToHash(byte[] hash) {
+        return HexUtil.encodeHexStr(hash);
+    }
+
+    /**
+     * 将SM2公钥编码为33字节的压缩点
+     *
+     * @param publicKey 公钥
+     * @return byte[] 压缩公钥
+     */
+    public static byte[] compressPublicKey(PublicKey publicKey) {
+        return SM2_VERIFY_PARAMS.computeIfAbsent(publicKey, CryptoUtil::toSm2Params).getQ().getEncoded(true);
+    }
+
+    /**
+     * 由压缩点还原SM2公钥，还原后的公钥与原公钥的{@link #getStringFromKey(Key)}结果一致
+     *
+     * @param compressed 压缩公钥
+     * @return {@link PublicKey}
+     */
+    public static PublicKey decompressPublicKey(byte[] compressed) {
+        try {
+            return KeyFactory.getInstance("EC", BC_PROVIDER).generatePublic(
+                    new ECPublicKeySpec(SM2_CURVE.getCurve().decodePoint(compressed), SM2_CURVE));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 由{@link #getStringFromKey(Key)}的结果还原公钥
+     *
+     * @param key Base64编码的公钥
+     * @return {@link PublicKey}
+     */
+    public static PublicKey getKeyFromString(String key) {
+        try {
+            return KeyFactory.getInstance("EC", BC_PROVIDER).generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(key)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
     /**
@@ -100,27 +214,13 @@ public class CryptoUtil {
      * 计算Merkle根值
      *
      * @param transactions 交易@{@link Transaction}
-     * @return String
+     * @return String 16进制表示的根，无交易时返回空字符串
      */
-    public static String calculateMerkleRoot(ArrayList<Transaction> transactions) {
-        int count = transactions.size();
-
-        List<String> previousTreeLayer = new ArrayList<>();
+    public static String calculateMerkleRoot(List<Transaction> transactions) {
+        MerkleTree tree = new MerkleTree(transactions.size());
         for (Transaction transaction : transactions) {
-            previousTreeLayer.add(transaction.getId());
-        }
-        List<String> treeLayer = previousTreeLayer;
-
-        while (count > 1) {
-            treeLayer = new ArrayList<>();
-            // 每次选择两个交易的散列值重新计算
-            for (int i = 1; i < previousTreeLayer.size(); i += 2) {
-                treeLayer.add(applySm3Hash(previousTreeLayer.get(i - 1) + previousTreeLayer.get(i)));
-            }
-            count = treeLayer.size();
-            previousTreeLayer = treeLayer;
+            tree.append(transaction.getId());
         }
-
-        return (treeLayer.size() == 1) ? treeLayer.get(0) : "";
+        return tree.getRootHex();
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Key;
 
 /**
@@ -18,15 +19,31 @@ import java.security.Key;
  */
 @Component
 public class JsonUtil extends JsonSerializer<Key> {
+
+    /**
+     * ObjectMapper配置完成后线程安全，所有调用共享同一实例以复用其序列化器缓存
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     public static String toJson(Object object) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.writeValueAsString(object);
+            return MAPPER.writeValueAsString(object);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * 创建直接写入输出流的JSON生成器，其writeObject与{@link #toJson(Object)}使用相同的序列化配置
+     *
+     * @param out 输出流
+     * @return {@link JsonGenerator}
+     * @throws IOException 生成器创建失败
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return MAPPER.getFactory().createGenerator(out);
+    }
+
     @Override
     public void serialize(Key value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
         gen.writeString(CryptoUtil.getStringFromKey(value));
@@ -29,6 +29,11 @@ public class LatteChain {
      */
     private HashMap<String, Wallet> users = new HashMap<>();
 
+    /**
+     * 链顶
+     */
+    private final ChainTipHolder chainTip = new ChainTipHolder();
+
     /**
      * 管理员公钥
      */
@@ -37,7 +42,7 @@ public class LatteChain {
     /**
      * 最小交易值
      */
-    private final float minimumTransactionValue = 0.1f;
+    private final long minimumTransactionValue = AmountUtil.UNITS / 10;
 
     private LatteChain() {}
 
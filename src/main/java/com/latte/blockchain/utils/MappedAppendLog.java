@@ -0,0 +1,319 @@
+package com.latte.blockchain.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的分段追加日志
+ * <p>
+ * 每个段以魔数开头，段内每条记录格式为[int 长度][int CRC32][数据]，数据与校验和先于长度写入，
+ * 长度为0即表示段内已无后续记录。内存映射页的落盘顺序不确定，断电后长度可能已落盘而数据没有，
+ * 因此重新打开时遇到校验和不符的记录即视为段的结尾。记录位置由段号(高32位)与段内偏移(低32位)组成，
+ * 同一日志中的位置随写入顺序递增。
+ * 追加操作串行执行，读取可与追加并发进行。
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class MappedAppendLog implements Closeable {
+
+    /**
+     * 段文件头魔数("LCLG")
+     */
+    private static final int SEGMENT_MAGIC = 0x4C434C47;
+
+    /**
+     * 段文件头所占字节数
+     */
+    private static final int SEGMENT_HEADER_LENGTH = 4;
+
+    /**
+     * 记录长度字段所占字节数
+     */
+    private static final int LENGTH_FIELD = 4;
+
+    /**
+     * 记录头(长度与校验和)所占字节数
+     */
+    private static final int HEADER_LENGTH = 8;
+
+    private final Path directory;
+
+    private final String prefix;
+
+    private final Pattern segmentName;
+
+    private final int segmentSize;
+
+    /**
+     * 所有已映射的段，按段号递增，只有最后一个段会被追加
+     */
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * 当前段的写入偏移
+     */
+    private int writeOffset;
+
+    /**
+     * 自该段号起存在尚未刷盘的数据
+     */
+    private int dirtySegment;
+
+    /**
+     * 打开(或新建)目录下以prefix为前缀的所有段
+     *
+     * @param directory   段文件所在目录
+     * @param prefix      段文件名前缀
+     * @param segmentSize 新建段的大小(字节)
+     * @throws IOException 文件无法创建或映射
+     */
+    public MappedAppendLog(Path directory, String prefix, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentName = Pattern.compile(Pattern.quote(prefix) + "-(\\d{6})\\.log");
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        // 已被截断的段不再存在，从现存最小的段号开始依次映射
+        for (int i = firstSegmentIndex(); Files.exists(segmentPath(i)); i++) {
+            segments.add(map(i));
+        }
+        if (segments.isEmpty()) {
+            segments.add(map(0));
+        }
+        Segment active = segments.get(segments.size() - 1);
+        dirtySegment = active.index;
+        writeOffset = scan(active, null);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param data 记录数据
+     * @return 记录位置
+     * @throws IOException 新段无法创建
+     */
+    public synchronized long append(byte[] data) throws IOException {
+        int recordLength = HEADER_LENGTH + data.length;
+        if (SEGMENT_HEADER_LENGTH + recordLength + LENGTH_FIELD > segmentSize) {
+            throw new IllegalArgumentException("记录长度" + data.length + "超过段大小" + segmentSize);
+        }
+        Segment active = segments.get(segments.size() - 1);
+        // 段尾需保留一个为0的长度作为结束标记
+        if (writeOffset + recordLength + LENGTH_FIELD > active.buffer.capacity()) {
+            active = map(active.index + 1);
+            segments.add(active);
+            writeOffset = SEGMENT_HEADER_LENGTH;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ByteBuffer view = active.buffer.duplicate();
+        view.position(writeOffset + HEADER_LENGTH);
+        view.put(data);
+        active.buffer.putInt(writeOffset + LENGTH_FIELD, (int) crc.getValue());
+        // 清除崩溃前残留的后续记录头，再写入长度使记录生效
+        active.buffer.putInt(writeOffset + recordLength, 0);
+        active.buffer.putInt(writeOffset, data.length);
+
+        long position = position(active.index, writeOffset);
+        writeOffset += recordLength;
+        return position;
+    }
+
+    /**
+     * 读取指定位置的记录
+     *
+     * @param position {@link #append(byte[])}返回的记录位置
+     * @return 记录数据
+     */
+    public byte[] read(long position) {
+        Segment segment = segment((int) (position >>> 32));
+        if (segment == null) {
+            throw new IllegalArgumentException("记录所在的段已被截断: " + position);
+        }
+        ByteBuffer view = segment.buffer.duplicate();
+        int offset = (int) position;
+        byte[] data = new byte[view.getInt(offset)];
+        view.position(offset + HEADER_LENGTH);
+        view.get(data);
+        return data;
+    }
+
+    /**
+     * 按写入顺序遍历所有记录，用于启动时重建索引
+     *
+     * @param consumer 记录位置与数据
+     */
+    public void forEach(BiConsumer<Long, byte[]> consumer) {
+        forEach(-1, consumer);
+    }
+
+    /**
+     * 按写入顺序遍历位置大于after的记录
+     *
+     * @param after    起始位置(不含)，为-1时遍历所有记录
+     * @param consumer 记录位置与数据
+     */
+    public void forEach(long after, BiConsumer<Long, byte[]> consumer) {
+        for (Segment segment : segments) {
+            if (after < 0 || segment.index >= (int) (after >>> 32)) {
+                scan(segment, (position, data) -> {
+                    if (position > after) {
+                        consumer.accept(position, data);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 删除位置所在段之前的所有段文件，当前追加的段不会被删除
+     *
+     * @param position 仍需保留的最早记录位置
+     * @return 删除的段数量
+     * @throws IOException 段文件无法删除
+     */
+    public synchronized int truncateBefore(long position) throws IOException {
+        int keep = Math.min((int) (position >>> 32), segments.get(segments.size() - 1).index);
+        int removed = 0;
+        while (segments.get(0).index < keep) {
+            // 映射在缓冲区被回收前仍然有效，删除文件不影响并发中的读取
+            Files.deleteIfExists(segmentPath(segments.get(0).index));
+            segments.remove(0);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * 将尚未刷盘的段写回磁盘，刷盘期间不阻塞追加操作
+     */
+    public void force() {
+        List<Segment> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                if (segment.index >= dirtySegment) {
+                    dirty.add(segment);
+                }
+            }
+            dirtySegment = segments.get(segments.size() - 1).index;
+        }
+        for (Segment segment : dirty) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * 扫描一个段中的所有完整记录
+     *
+     * @param segment  段
+     * @param consumer 记录回调，可为null
+     * @return 段内第一个空闲位置
+     */
+    private static int scan(Segment segment, BiConsumer<Long, byte[]> consumer) {
+        ByteBuffer view = segment.buffer.duplicate();
+        int offset = SEGMENT_HEADER_LENGTH;
+        while (offset + HEADER_LENGTH <= view.capacity()) {
+            int length = view.getInt(offset);
+            if (length <= 0 || offset + HEADER_LENGTH + length > view.capacity()) {
+                break;
+            }
+            byte[] data = new byte[length];
+            view.position(offset + HEADER_LENGTH);
+            view.get(data);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if ((int) crc.getValue() != view.getInt(offset + LENGTH_FIELD)) {
+                // 断电时未完整落盘的记录，其后不会再有有效记录
+                break;
+            }
+            if (consumer != null) {
+                consumer.accept(position(segment.index, offset), data);
+            }
+            offset += HEADER_LENGTH + length;
+        }
+        return offset;
+    }
+
+    private static long position(int index, int offset) {
+        return ((long) index << 32) | offset;
+    }
+
+    private Segment segment(int index) {
+        // 遍历快照，避免与截断并发时按下标取到错误的段
+        for (Segment segment : segments) {
+            if (segment.index == index) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 映射一个段，新建的段写入魔数
+     *
+     * @throws IOException 文件无法映射，或已有数据但不是本日志的段文件
+     */
+    private Segment map(int index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentSize);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        int header = buffer.getInt(0);
+        if (header == 0) {
+            buffer.putInt(0, SEGMENT_MAGIC);
+        } else if (header != SEGMENT_MAGIC) {
+            throw new IOException("无法识别的段文件: " + segmentPath(index));
+        }
+        return new Segment(index, buffer);
+    }
+
+    private int firstSegmentIndex() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> segmentName.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .min().orElse(0);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s-%06d.log", prefix, index));
+    }
+
+    /**
+     * 一个已映射的段
+     */
+    private static class Segment {
+
+        private final int index;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(int index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
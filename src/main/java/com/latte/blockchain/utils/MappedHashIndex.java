@@ -0,0 +1,228 @@
+package com.latte.blockchain.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongPredicate;
+
+/**
+ * 基于内存映射文件的开放寻址哈希索引，保存键的64位指纹到{@link MappedAppendLog}记录位置的映射
+ * <p>
+ * 文件头为[int 魔数][int 槽数][long 已索引的日志位置]，其后每个槽为[long 指纹][long 位置+1]，
+ * 指纹为0的槽为空。不同的键可能具有相同的指纹，因此查找与写入时由调用方根据日志记录确认键是否相同。
+ * 已索引的日志位置只在槽刷盘后才写入文件头，重新打开后由调用方重放该位置之后的日志记录即可补齐索引。
+ * 负载超过一半时按两倍槽数重建文件。所有操作串行执行。
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class MappedHashIndex implements Closeable {
+
+    /**
+     * 文件头魔数("LCIX")
+     */
+    private static final int MAGIC = 0x4C434958;
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final int SLOT_LENGTH = 16;
+
+    private final Path file;
+
+    private MappedByteBuffer buffer;
+
+    private int capacity;
+
+    private int size;
+
+    /**
+     * 已写入索引的最大日志位置，尚未写入文件头
+     */
+    private long indexedPosition;
+
+    /**
+     * 打开(或新建)索引文件，文件头无效时新建空索引
+     *
+     * @param file            索引文件
+     * @param initialCapacity 新建索引的槽数，须为2的幂
+     * @throws IOException 文件无法创建或映射
+     */
+    public MappedHashIndex(Path file, int initialCapacity) throws IOException {
+        this.file = file;
+        if (Files.exists(file) && Files.size(file) >= HEADER_LENGTH) {
+            buffer = map(file, 0);
+            capacity = buffer.getInt(4);
+            if (buffer.getInt(0) == MAGIC && capacity > 0 && Integer.bitCount(capacity) == 1
+                    && buffer.capacity() >= fileLength(capacity)) {
+                indexedPosition = buffer.getLong(8);
+                for (int slot = 0; slot < capacity; slot++) {
+                    if (buffer.getLong(offset(slot)) != 0) {
+                        size++;
+                    }
+                }
+                return;
+            }
+        }
+        buffer = create(file, initialCapacity);
+        capacity = initialCapacity;
+        indexedPosition = -1;
+    }
+
+    /**
+     * 获取已写入文件头的日志位置，调用方需重放该位置之后的记录
+     *
+     * @return 日志位置，新建的索引为-1
+     */
+    public synchronized long getIndexedPosition() {
+        return buffer.getLong(8);
+    }
+
+    /**
+     * 查找指纹对应的日志位置
+     *
+     * @param fingerprint 键的指纹
+     * @param sameKey     判断该位置的记录是否属于要查找的键
+     * @return 日志位置，不存在时返回-1
+     */
+    public synchronized long find(long fingerprint, LongPredicate sameKey) {
+        long key = nonZero(fingerprint);
+        for (int slot = slot(key); ; slot = (slot + 1) & (capacity - 1)) {
+            long stored = buffer.getLong(offset(slot));
+            if (stored == 0) {
+                return -1;
+            }
+            long position = buffer.getLong(offset(slot) + Long.BYTES) - 1;
+            if (stored == key && position >= 0 && sameKey.test(position)) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * 写入指纹对应的日志位置，同一个键已存在时覆盖其位置
+     *
+     * @param fingerprint 键的指纹
+     * @param position    日志位置
+     * @param sameKey     判断已有位置的记录是否属于同一个键
+     * @throws IOException 扩容时文件无法创建
+     */
+    public synchronized void put(long fingerprint, long position, LongPredicate sameKey) throws IOException {
+        long key = nonZero(fingerprint);
+        for (int slot = slot(key); ; slot = (slot + 1) & (capacity - 1)) {
+            int offset = offset(slot);
+            long stored = buffer.getLong(offset);
+            if (stored == 0) {
+                buffer.putLong(offset + Long.BYTES, position + 1);
+                buffer.putLong(offset, key);
+                size++;
+                break;
+            }
+            long existing = buffer.getLong(offset + Long.BYTES) - 1;
+            // 崩溃时只落盘了指纹的槽同样可以复用
+            if (stored == key && (existing < 0 || sameKey.test(existing))) {
+                buffer.putLong(offset + Long.BYTES, position + 1);
+                break;
+            }
+        }
+        indexedPosition = Math.max(indexedPosition, position);
+        if (size > capacity / 2) {
+            resize();
+        }
+    }
+
+    /**
+     * 获取索引中的键数量
+     *
+     * @return 数量
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 将槽刷盘后再记录已索引的日志位置
+     */
+    public synchronized void checkpoint() {
+        buffer.force();
+        buffer.putLong(8, indexedPosition);
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        checkpoint();
+    }
+
+    /**
+     * 按两倍槽数重建索引文件，新文件写满并刷盘后原子替换旧文件
+     */
+    private void resize() throws IOException {
+        int newCapacity = capacity << 1;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MappedByteBuffer resized = create(temp, newCapacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            long key = buffer.getLong(offset(slot));
+            if (key == 0) {
+                continue;
+            }
+            int target = (int) (mix(key) & (newCapacity - 1));
+            while (resized.getLong(offset(target)) != 0) {
+                target = (target + 1) & (newCapacity - 1);
+            }
+            resized.putLong(offset(target) + Long.BYTES, buffer.getLong(offset(slot) + Long.BYTES));
+            resized.putLong(offset(target), key);
+        }
+        resized.putLong(8, indexedPosition);
+        resized.force();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        buffer = resized;
+        capacity = newCapacity;
+    }
+
+    private int slot(long key) {
+        return (int) (mix(key) & (capacity - 1));
+    }
+
+    private static int offset(int slot) {
+        return HEADER_LENGTH + slot * SLOT_LENGTH;
+    }
+
+    private static long fileLength(int capacity) {
+        return HEADER_LENGTH + (long) capacity * SLOT_LENGTH;
+    }
+
+    private static long nonZero(long fingerprint) {
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * 打散指纹的低位，使槽号分布均匀
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static MappedByteBuffer create(Path path, int capacity) throws IOException {
+        Files.deleteIfExists(path);
+        MappedByteBuffer created = map(path, fileLength(capacity));
+        created.putInt(4, capacity);
+        created.putLong(8, -1);
+        created.putInt(0, MAGIC);
+        return created;
+    }
+
+    private static MappedByteBuffer map(Path path, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), length));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.latte.blockchain.utils;
+
+import cn.hutool.core.util.HexUtil;
+import lombok.Getter;
+import org.bouncycastle.crypto.digests.SM3Digest;
+
+import java.util.Arrays;
+
+/**
+ * 基于32字节原始摘要的Merkle树，父节点为SM3(left || right)，某层节点数为奇数时复制最后一个节点。
+ * <p>
+ * 支持逐个追加叶子节点，计算根与证明时在同一个可复用的缓冲区中原地逐层归约。非线程安全
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class MerkleTree {
+
+    /**
+     * 节点摘要长度
+     */
+    public static final int HASH_LENGTH = 32;
+
+    /**
+     * 叶子节点，连续存放
+     */
+    private byte[] leaves;
+
+    /**
+     * 叶子节点数量
+     */
+    private int size;
+
+    /**
+     * 逐层归约使用的缓冲区
+     */
+    private byte[] layer;
+
+    /**
+     * 缓存的根，追加叶子后失效
+     */
+    private byte[] root;
+
+    private final SM3Digest digest = new SM3Digest();
+
+    public MerkleTree() {
+        this(4);
+    }
+
+    /**
+     * @param capacity 预计的叶子节点数量
+     */
+    public MerkleTree(int capacity) {
+        leaves = new byte[Math.max(1, capacity) * HASH_LENGTH];
+        layer = new byte[leaves.length];
+    }
+
+    /**
+     * 追加一个叶子节点
+     *
+     * @param leaf 32字节摘要
+     */
+    public void append(byte[] leaf) {
+        if ((size + 1) * HASH_LENGTH > leaves.length) {
+            leaves = Arrays.copyOf(leaves, leaves.length * 2);
+        }
+        System.arraycopy(leaf, 0, leaves, size * HASH_LENGTH, HASH_LENGTH);
+        size++;
+        root = null;
+    }
+
+    /**
+     * 追加一个16进制表示的叶子节点
+     *
+     * @param leaf 16进制摘要
+     */
+    public void append(String leaf) {
+        append(CryptoUtil.hashToBytes(leaf));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 计算Merkle根
+     *
+     * @return 32字节的根，树为空时返回null
+     */
+    public byte[] getRoot() {
+        if (size == 0) {
+            return null;
+        }
+        if (root == null) {
+            int count = resetLayer();
+            while (count > 1) {
+                count = reduce(count);
+            }
+            root = Arrays.copyOf(layer, HASH_LENGTH);
+        }
+        return root;
+    }
+
+    /**
+     * 计算Merkle根
+     *
+     * @return 16进制表示的根，树为空时返回空字符串
+     */
+    public String getRootHex() {
+        return size == 0 ? "" : HexUtil.encodeHexStr(getRoot());
+    }
+
+    /**
+     * 生成第index个叶子节点的存在性证明
+     *
+     * @param index 叶子节点下标
+     * @return {@link Proof}
+     */
+    public Proof prove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("leaf index: " + index + ", size: " + size);
+        }
+        int depth = 32 - Integer.numberOfLeadingZeros(size - 1);
+        byte[][] siblings = new byte[depth][];
+        int count = resetLayer();
+        int position = index;
+        for (int level = 0; count > 1; level++) {
+            // 奇数层的最后一个节点与自身配对
+            int sibling = Math.min(position ^ 1, count - 1);
+            siblings[level] = Arrays.copyOfRange(layer, sibling * HASH_LENGTH, (sibling + 1) * HASH_LENGTH);
+            count = reduce(count);
+            position >>>= 1;
+        }
+        return new Proof(index, siblings);
+    }
+
+    /**
+     * 验证叶子节点的存在性证明
+     *
+     * @param leaf  32字节叶子节点
+     * @param proof {@link Proof}
+     * @param root  32字节Merkle根
+     * @return 证明有效则返回true
+     */
+    public static boolean verify(byte[] leaf, Proof proof, byte[] root) {
+        SM3Digest digest = new SM3Digest();
+        byte[] current = Arrays.copyOf(leaf, HASH_LENGTH);
+        int position = proof.getIndex();
+        for (byte[] sibling : proof.getSiblings()) {
+            if ((position & 1) == 0) {
+                digest.update(current, 0, HASH_LENGTH);
+                digest.update(sibling, 0, HASH_LENGTH);
+            } else {
+                digest.update(sibling, 0, HASH_LENGTH);
+                digest.update(current, 0, HASH_LENGTH);
+            }
+            digest.doFinal(current, 0);
+            position >>>= 1;
+        }
+        return Arrays.equals(current, root);
+    }
+
+    /**
+     * 将叶子节点复制到归约缓冲区
+     *
+     * @return 叶子节点数量
+     */
+    private int resetLayer() {
+        if (layer.length < leaves.length) {
+            layer = new byte[leaves.length];
+        }
+        System.arraycopy(leaves, 0, layer, 0, size * HASH_LENGTH);
+        return size;
+    }
+
+    /**
+     * 在缓冲区中原地计算上一层节点，第i个父节点写入第i个位置，不会覆盖尚未读取的子节点
+     *
+     * @param count 当前层节点数量
+     * @return 上一层节点数量
+     */
+    private int reduce(int count) {
+        int parents = (count + 1) >>> 1;
+        for (int i = 0; i < parents; i++) {
+            int left = 2 * i;
+            int right = Math.min(left + 1, count - 1);
+            digest.update(layer, left * HASH_LENGTH, HASH_LENGTH);
+            digest.update(layer, right * HASH_LENGTH, HASH_LENGTH);
+            digest.doFinal(layer, i * HASH_LENGTH);
+        }
+        return parents;
+    }
+
+    /**
+     * 叶子节点的存在性证明，siblings[i]为第i层(自叶子向上)的兄弟节点
+     */
+    @Getter
+    public static class Proof {
+        private final int index;
+
+        private final byte[][] siblings;
+
+        public Proof(int index, byte[][] siblings) {
+            this.index = index;
+            this.siblings = siblings;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.latte.blockchain.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 分段加锁的有界LRU缓存：键按哈希值分配到固定数量的段，每段为独立加锁的访问顺序LinkedHashMap，
+ * 超出段容量时淘汰该段最久未使用的条目。不同段的访问互不阻塞，淘汰顺序只在段内近似全局LRU
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+public class StripedLruCache<K, V> {
+
+    /**
+     * 段数量，须为2的幂
+     */
+    private static final int STRIPES = 16;
+
+    private final Stripe<K, V>[] stripes;
+
+    /**
+     * @param capacity 缓存的最大条目数，均分到各段
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(int capacity) {
+        int stripeCapacity = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>(stripeCapacity);
+        }
+    }
+
+    /**
+     * 获取缓存的值并将其标记为最近使用
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public V get(K key) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * 写入缓存，段已满时淘汰最久未使用的条目
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(K key, V value) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    /**
+     * 获取缓存的值，不存在时在段锁内创建并写入
+     *
+     * @param key     键
+     * @param factory 创建值的函数，不应执行耗时操作
+     * @return 值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(key, factory);
+        }
+    }
+
+    /**
+     * 获取缓存的条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K, V> stripeOf(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * 一个段，所有访问需持有其锁
+     */
+    private static class Stripe<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
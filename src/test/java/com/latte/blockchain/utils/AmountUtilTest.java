@@ -0,0 +1,29 @@
+package com.latte.blockchain.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link AmountUtil}的金额解析与格式化测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+class AmountUtilTest {
+
+    @Test
+    void parsesAndFormatsExactAmounts() {
+        assertEquals(AmountUtil.UNITS / 10, AmountUtil.parse(" 0.1 "));
+        assertEquals(0, AmountUtil.parse("0"));
+        assertEquals("1.5", AmountUtil.format(AmountUtil.parse("1.50000000")));
+    }
+
+    @Test
+    void rejectsNegativeAndInexactAmounts() {
+        assertThrows(NumberFormatException.class, () -> AmountUtil.parse("-1"));
+        assertThrows(NumberFormatException.class, () -> AmountUtil.parse("0.000000001"));
+        assertThrows(NumberFormatException.class, () -> AmountUtil.parse("99999999999999"));
+        assertThrows(NumberFormatException.class, () -> AmountUtil.parse("abc"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.latte.blockchain.utils;
+
+import cn.hutool.crypto.SecureUtil;
+import com.latte.blockchain.entity.Block;
+import com.latte.blockchain.entity.Transaction;
+import com.latte.blockchain.entity.Utxo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link BinaryCodec}的编解码往返测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+class BinaryCodecTest {
+
+    private static KeyPair sender;
+
+    private static KeyPair recipient;
+
+    @BeforeAll
+    static void generateKeys() {
+        sender = SecureUtil.generateKeyPair("SM2");
+        recipient = SecureUtil.generateKeyPair("SM2");
+    }
+
+    @Test
+    void utxoRoundTrip() {
+        Utxo utxo = new Utxo(recipient.getPublic(), 3 * AmountUtil.UNITS / 10);
+        utxo.setRefTransactionId(randomHash());
+
+        Utxo decoded = BinaryCodec.decodeUtxo(ByteBuffer.wrap(BinaryCodec.toBytes(utxo)));
+
+        assertEquals(utxo.getId(), decoded.getId());
+        assertEquals(utxo.getRecipientString(), decoded.getRecipientString());
+        assertEquals(utxo.getValue(), decoded.getValue());
+        assertEquals(utxo.getTimeStamp(), decoded.getTimeStamp());
+        assertEquals(utxo.getRefTransactionId(), decoded.getRefTransactionId());
+    }
+
+    @Test
+    void transactionRoundTripRestoresComposedData() {
+        Transaction transaction = newTransaction("admin", "alice", 5 * AmountUtil.UNITS, AmountUtil.UNITS / 100);
+
+        byte[] encoded = BinaryCodec.toBytes(transaction);
+        Transaction decoded = BinaryCodec.decodeTransaction(ByteBuffer.wrap(encoded));
+
+        // 交易数据可由其余字段还原，编码中不应另行保存
+        assertFalse(new String(encoded, StandardCharsets.ISO_8859_1).contains(transaction.getData()));
+        assertEquals(transaction.getId(), decoded.getId());
+        assertEquals("admin", decoded.getSenderString());
+        assertEquals("alice", decoded.getRecipientString());
+        assertEquals(CryptoUtil.getStringFromKey(sender.getPublic()), CryptoUtil.getStringFromKey(decoded.getSender()));
+        assertEquals(CryptoUtil.getStringFromKey(recipient.getPublic()),
+                CryptoUtil.getStringFromKey(decoded.getRecipient()));
+        assertEquals(transaction.getValue(), decoded.getValue());
+        assertEquals(transaction.getFee(), decoded.getFee());
+        assertEquals(transaction.getTimeStamp(), decoded.getTimeStamp());
+        assertEquals(transaction.getInputUtxosId(), decoded.getInputUtxosId());
+        assertEquals(transaction.getOutputUtxosId(), decoded.getOutputUtxosId());
+        assertEquals(transaction.getOutputUtxos().size(), decoded.getOutputUtxos().size());
+        assertEquals(transaction.getRegistrationMsg(), decoded.getRegistrationMsg());
+        assertEquals(transaction.getData(), decoded.getData());
+        assertArrayEquals(transaction.getSignature(), decoded.getSignature());
+        assertTrue(CryptoUtil.verifySm2Signature(decoded.getSender(), decoded.getData(), decoded.getSignature()));
+    }
+
+    @Test
+    void transactionRoundTripKeepsExplicitData() {
+        Transaction transaction = newTransaction("admin", "alice", AmountUtil.UNITS, 0);
+        transaction.setData(transaction.getData() + "-modified");
+
+        Transaction decoded = BinaryCodec.decodeTransaction(ByteBuffer.wrap(BinaryCodec.toBytes(transaction)));
+
+        assertEquals(transaction.getData(), decoded.getData());
+    }
+
+    @Test
+    void genesisBlockRoundTrip() {
+        Block genesis = new Block("0", "genesis");
+        genesis.setId(0);
+        genesis.setMerkleRoot(genesis.getMerkleTree().getRootHex());
+        genesis.setHash(randomHash());
+        genesis.setNonce(42);
+
+        Block decoded = BinaryCodec.decodeBlock(ByteBuffer.wrap(BinaryCodec.toBytes(genesis)));
+
+        assertEquals(0, decoded.getId());
+        assertEquals("0", decoded.getPreviousHash());
+        assertEquals(genesis.getHash(), decoded.getHash());
+        assertEquals(genesis.getMerkleRoot(), decoded.getMerkleRoot());
+        assertEquals("genesis", decoded.getMsg());
+        assertEquals(genesis.getTimeStamp(), decoded.getTimeStamp());
+        assertEquals(42, decoded.getNonce());
+        assertTrue(decoded.getTransactions().isEmpty());
+    }
+
+    @Test
+    void blockRoundTripKeepsTransactionOrder() {
+        Block block = new Block(randomHash(), "miner");
+        block.setId(7);
+        for (int i = 0; i < 3; i++) {
+            block.addTransaction(newTransaction("admin", "alice", (i + 1) * AmountUtil.UNITS, i));
+        }
+        block.setMerkleRoot(block.getMerkleTree().getRootHex());
+        block.setHash(randomHash());
+
+        Block decoded = BinaryCodec.decodeBlock(ByteBuffer.wrap(BinaryCodec.toBytes(block)));
+
+        assertEquals(block.getPreviousHash(), decoded.getPreviousHash());
+        assertEquals(block.getMerkleRoot(), decoded.getMerkleRoot());
+        assertEquals(block.getTransactions().size(), decoded.getTransactions().size());
+        for (int i = 0; i < block.getTransactions().size(); i++) {
+            assertEquals(block.getTransactions().get(i).getId(), decoded.getTransactions().get(i).getId());
+            assertEquals(block.getTransactions().get(i).getFee(), decoded.getTransactions().get(i).getFee());
+        }
+        assertEquals(block.getMerkleRoot(), decoded.getMerkleTree().getRootHex());
+    }
+
+    @Test
+    void utxoWithoutRecipientKey() {
+        Utxo utxo = new Utxo();
+        utxo.setId(randomHash());
+        utxo.setValue(AmountUtil.UNITS);
+        utxo.setTimeStamp(1624500000000L);
+
+        Utxo decoded = BinaryCodec.decodeUtxo(ByteBuffer.wrap(BinaryCodec.toBytes(utxo)));
+
+        assertEquals(utxo.getId(), decoded.getId());
+        assertNull(decoded.getRecipient());
+        assertNull(decoded.getRecipientString());
+        assertEquals(AmountUtil.UNITS, decoded.getValue());
+        assertEquals(1624500000000L, decoded.getTimeStamp());
+    }
+
+    @Test
+    void rejectsOtherVersion() {
+        byte[] encoded = BinaryCodec.toBytes(new Utxo(recipient.getPublic(), AmountUtil.UNITS));
+        encoded[Integer.BYTES] = BinaryCodec.FORMAT_VERSION + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeUtxo(ByteBuffer.wrap(encoded)));
+    }
+
+    private static Transaction newTransaction(String senderAddress, String recipientAddress, long value, long fee) {
+        Set<String> inputs = new HashSet<>(Collections.singletonList(randomHash()));
+        Transaction transaction = new Transaction(sender.getPublic(), recipient.getPublic(), value, inputs);
+        transaction.setId(randomHash());
+        transaction.setFee(fee);
+        transaction.setSenderString(senderAddress);
+        transaction.setRecipientString(recipientAddress);
+        transaction.setData(Transaction.composeData(senderAddress, recipientAddress, value, fee,
+                transaction.getTimeStamp(), null));
+        transaction.setSignature(CryptoUtil.applySm2Signature(sender.getPrivate(), transaction.getData()));
+        transaction.setRegistrationMsg(randomHash().substring(0, 16));
+        Utxo output = new Utxo(recipient.getPublic(), value);
+        output.setRefTransactionId(transaction.getId());
+        transaction.setOutputUtxos(new HashSet<>(Collections.singletonList(output)));
+        transaction.getOutputUtxosId().add(output.getId());
+        return transaction;
+    }
+
+    private static String randomHash() {
+        return CryptoUtil.applySha256Hash(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.latte.blockchain.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link MappedAppendLog}的追加、分段、截断与校验和测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+class MappedAppendLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsAcrossSegmentsAfterReopen() throws IOException {
+        List<Long> positions = new ArrayList<>();
+        MappedAppendLog log = new MappedAppendLog(directory, "test", SEGMENT_SIZE);
+        for (int i = 0; i < 20; i++) {
+            positions.add(log.append(record(i)));
+        }
+        log.close();
+
+        MappedAppendLog reopened = new MappedAppendLog(directory, "test", SEGMENT_SIZE);
+        List<String> records = new ArrayList<>();
+        reopened.forEach((position, data) -> records.add(new String(data, StandardCharsets.UTF_8)));
+
+        assertEquals(20, records.size());
+        assertEquals("record-19", records.get(19));
+        assertEquals("record-7", new String(reopened.read(positions.get(7)), StandardCharsets.UTF_8));
+        // 重新打开后从原有记录之后继续追加
+        assertTrue(reopened.append(record(20)) > positions.get(19));
+    }
+
+    @Test
+    void iteratesOnlyAfterPositionAndTruncatesEarlierSegments() throws IOException {
+        MappedAppendLog log = new MappedAppendLog(directory, "test", SEGMENT_SIZE);
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            positions.add(log.append(record(i)));
+        }
+        long after = positions.get(16);
+
+        assertTrue(log.truncateBefore(after) > 0);
+        List<Long> visited = new ArrayList<>();
+        log.forEach(after, (position, data) -> visited.add(position));
+
+        assertEquals(positions.subList(17, 20), visited);
+        assertThrows(IllegalArgumentException.class, () -> log.read(positions.get(0)));
+    }
+
+    @Test
+    void stopsAtRecordWithBadChecksum() throws IOException {
+        MappedAppendLog log = new MappedAppendLog(directory, "test", SEGMENT_SIZE);
+        log.append(record(0));
+        long second = log.append(record(1));
+        log.append(record(2));
+        log.close();
+
+        // 模拟断电时长度已落盘而数据未落盘
+        try (FileChannel channel = FileChannel.open(directory.resolve("test-000000.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), (int) second + 8);
+        }
+        MappedAppendLog reopened = new MappedAppendLog(directory, "test", SEGMENT_SIZE);
+        List<Long> visited = new ArrayList<>();
+        reopened.forEach((position, data) -> visited.add(position));
+
+        assertEquals(1, visited.size());
+        // 损坏的记录及其后的空间被重新使用
+        assertEquals(second, reopened.append(record(3)));
+    }
+
+    @Test
+    void rejectsForeignSegmentFile() throws IOException {
+        Files.write(directory.resolve("test-000000.log"), "not a segment".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> new MappedAppendLog(directory, "test", SEGMENT_SIZE));
+    }
+
+    private static byte[] record(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package com.latte.blockchain.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link MappedHashIndex}的查找、扩容与重新打开测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+class MappedHashIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEntriesAfterResize() throws IOException {
+        MappedHashIndex index = new MappedHashIndex(directory.resolve("test.idx"), 4);
+        for (long i = 0; i < 100; i++) {
+            long key = i;
+            index.put(key * 31, key, position -> position == key);
+        }
+
+        assertEquals(100, index.size());
+        for (long i = 0; i < 100; i++) {
+            long key = i;
+            assertEquals(key, index.find(key * 31, position -> position == key));
+        }
+        assertEquals(-1, index.find(-7, position -> true));
+    }
+
+    @Test
+    void resolvesFingerprintCollisionsWithCaller() throws IOException {
+        MappedHashIndex index = new MappedHashIndex(directory.resolve("test.idx"), 16);
+        index.put(42, 10, position -> false);
+        index.put(42, 20, position -> false);
+        // 同一个键再次写入时覆盖原有位置
+        index.put(42, 30, position -> position == 20);
+
+        assertEquals(2, index.size());
+        assertEquals(10, index.find(42, position -> position == 10));
+        assertEquals(30, index.find(42, position -> position == 30));
+        assertEquals(-1, index.find(42, position -> position == 20));
+    }
+
+    @Test
+    void reopensWithCheckpointedPosition() throws IOException {
+        Path file = directory.resolve("test.idx");
+        MappedHashIndex index = new MappedHashIndex(file, 16);
+        assertEquals(-1, index.getIndexedPosition());
+        index.put(1, 100, position -> false);
+        index.put(2, 200, position -> false);
+        index.close();
+
+        MappedHashIndex reopened = new MappedHashIndex(file, 16);
+
+        assertEquals(200, reopened.getIndexedPosition());
+        assertEquals(2, reopened.size());
+        assertEquals(100, reopened.find(1, position -> true));
+        assertEquals(200, reopened.find(2, position -> true));
+    }
+}
@@ -0,0 +1,38 @@
+package com.latte.blockchain.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link StripedLruCache}的容量与淘汰测试
+ *
+ * @author agent
+ * @since 2026/10/18
+ */
+class StripedLruCacheTest {
+
+    @Test
+    void staysWithinCapacity() {
+        StripedLruCache<Integer, Integer> cache = new StripedLruCache<>(64);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(9_999, cache.get(9_999));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWithinStripe() {
+        // 每段容量为1，键0与16落在同一段
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(16);
+        cache.put(0, "a");
+        assertEquals("a", cache.computeIfAbsent(0, key -> "b"));
+        cache.put(16, "c");
+
+        assertNull(cache.get(0));
+        assertEquals("c", cache.get(16));
+        assertEquals("d", cache.computeIfAbsent(0, key -> "d"));
+    }
+}